@@ -0,0 +1,172 @@
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses moves for computer players of different strength on a shared pool of
+ * threads. Every {@link Difficulty} has its own number of permits, its share of
+ * the threads, so a flood of requests of one level cannot delay the others.
+ * A request that finds no free permit of its level is not queued: it gets a
+ * move chosen by a shallow search on the calling thread instead. Every search
+ * stops at the latency ceiling of its level, and the moves are picked from the
+ * deepest search completed by then.
+ */
+public class AiPlayerPool implements AutoCloseable {
+
+    /**
+     * The number of nodes of the shallow search used when a request is not admitted.
+     */
+    private static final long FALLBACK_NODE_BUDGET = 200;
+
+    private final ExecutorService executor;
+
+    private final Map<Difficulty, Semaphore> permits = new EnumMap<>(Difficulty.class);
+
+    private final Map<Difficulty, LatencyHistogram> latencies = new EnumMap<>(Difficulty.class);
+
+    private final Map<Difficulty, LatencyHistogram> fallbackLatencies = new EnumMap<>(Difficulty.class);
+
+    /**
+     * Creates an {@code AiPlayerPool} object with about the given number of threads.
+     * Each level gets its share of the threads, but at least one.
+     *
+     * @param threads the number of threads to be shared among the levels
+     */
+    public AiPlayerPool(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        int totalPermits = 0;
+        for (var difficulty : Difficulty.values()) {
+            int levelPermits = Math.max(1, threads * difficulty.getPoolSharePercent() / 100);
+            permits.put(difficulty, new Semaphore(levelPermits));
+            latencies.put(difficulty, new LatencyHistogram());
+            fallbackLatencies.put(difficulty, new LatencyHistogram());
+            totalPermits += levelPermits;
+        }
+        // every admitted request gets a thread at once
+        this.executor = Executors.newFixedThreadPool(totalPermits, runnable -> {
+            Thread thread = new Thread(runnable, "ai-player");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Chooses a move for the side to move in the given state. The returned future
+     * is completed within the latency ceiling of the level, apart from delays of
+     * the scheduler.
+     *
+     * @param state the state in which a move is to be chosen; the game must not
+     * be over, and the side to move must have a legal move
+     * @param difficulty the strength of the player
+     * @return a future completed with a legal move
+     */
+    public CompletableFuture<Move> chooseMove(BoardState state, Difficulty difficulty) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(difficulty.getLatencyCeilingMillis());
+        BoardState root = state.clone();
+        if (root.isGoal() || Search.legalMoves(root).isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        Semaphore levelPermits = permits.get(difficulty);
+        if (!levelPermits.tryAcquire()) {
+            Move move = chooseMove(root, FALLBACK_NODE_BUDGET, 1, difficulty.getScoreMargin(), deadline);
+            fallbackLatencies.get(difficulty).record((System.nanoTime() - start) / 1000);
+            return CompletableFuture.completedFuture(move);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return chooseMove(root, difficulty.getNodeBudget(), difficulty.getMaxDepth(),
+                            difficulty.getScoreMargin(), deadline);
+                } finally {
+                    levelPermits.release();
+                    latencies.get(difficulty).record((System.nanoTime() - start) / 1000);
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            levelPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Chooses a move by iterative deepening, and picks one of the moves of the
+     * deepest completed search whose score is within the margin of the best one.
+     */
+    static Move chooseMove(BoardState state, long nodeBudget, int maxDepth, int scoreMargin, long deadline) {
+        var search = new Search(() -> System.nanoTime() >= deadline);
+        search.setNodeLimit(nodeBudget);
+        search.setRootMargin(scoreMargin);
+        List<Move> candidates = List.of(Search.legalMoves(state).get(0));
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            SearchResult result = search.search(state, depth);
+            if (result == null) {
+                break;
+            }
+            if (!search.getRootScores().isEmpty()) {
+                candidates = new ArrayList<>(search.getRootScores().keySet());
+            }
+            if (result.isMateScore()) {
+                break;
+            }
+        }
+        return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+    }
+
+    /**
+     * Returns the given percentile of the latencies of the requests of the given
+     * level that were run on the pool.
+     *
+     * @param difficulty the level
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in microseconds
+     */
+    public long latencyPercentile(Difficulty difficulty, double percentile) {
+        return latencies.get(difficulty).percentile(percentile);
+    }
+
+    /**
+     * Returns the given percentile of the latencies of the requests of the given
+     * level that were not admitted to the pool, and got a move from a shallow search.
+     *
+     * @param difficulty the level
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in microseconds
+     */
+    public long fallbackLatencyPercentile(Difficulty difficulty, double percentile) {
+        return fallbackLatencies.get(difficulty).percentile(percentile);
+    }
+
+    /**
+     * {@return the number of requests of the given level that were run on the pool}
+     *
+     * @param difficulty the level
+     */
+    public long admittedRequests(Difficulty difficulty) {
+        return latencies.get(difficulty).count();
+    }
+
+    /**
+     * {@return the number of requests of the given level that were not admitted
+     * to the pool}
+     *
+     * @param difficulty the level
+     */
+    public long rejectedRequests(Difficulty difficulty) {
+        return fallbackLatencies.get(difficulty).count();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,123 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@code TranspositionTable} that survives restarts. The table is mapped from
+ * its snapshot file when the cache is opened, so the results of earlier runs are
+ * available at once, without reading the whole file. A snapshot of the table is
+ * written periodically, when the cache is closed, and when the virtual machine
+ * shuts down. A snapshot file that does not match the current version, board
+ * size or number of pieces is ignored, and an empty table is used instead.
+ */
+public class AnalysisCache implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalysisCache.class.getName());
+
+    private final Path file;
+
+    private final TranspositionTable table;
+
+    private final boolean warm;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Thread shutdownHook;
+
+    private boolean closed;
+
+    private AnalysisCache(Path file, TranspositionTable table, boolean warm, Duration snapshotPeriod) {
+        this.file = file;
+        this.table = table;
+        this.warm = warm;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analysis-cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = snapshotPeriod.toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        this.shutdownHook = new Thread(this::snapshotQuietly, "analysis-cache-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Opens the cache stored in the given file, or creates an empty one if the
+     * file is missing or has been rejected.
+     *
+     * @param file the snapshot file
+     * @param boardSize the number of rows and columns of the board of the positions
+     * @param numberOfPieces the number of pieces of the positions
+     * @param capacity the number of entries of a newly created table
+     * @param snapshotPeriod the time between two periodic snapshots
+     * @return the cache
+     * @throws IOException if the file exists but cannot be read
+     */
+    public static AnalysisCache open(Path file, int boardSize, int numberOfPieces, int capacity,
+                                     Duration snapshotPeriod) throws IOException {
+        if (snapshotPeriod.toMillis() < 1) {
+            throw new IllegalArgumentException();
+        }
+        var mapped = TranspositionTable.map(file, boardSize, numberOfPieces);
+        var table = mapped.orElseGet(() -> new TranspositionTable(boardSize, numberOfPieces, capacity));
+        return new AnalysisCache(file, table, mapped.isPresent(), snapshotPeriod);
+    }
+
+    /**
+     * {@return the table of the cache}
+     */
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * {@return whether the table has been mapped from an earlier snapshot}
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Writes a snapshot of the table now.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void snapshot() throws IOException {
+        table.snapshot(file);
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.log(Level.WARNING, "Cannot write snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Stops the periodic snapshots, and writes a final snapshot.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        scheduler.shutdownNow();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // the virtual machine is shutting down, and the hook writes the snapshot
+            return;
+        }
+        snapshot();
+    }
+}
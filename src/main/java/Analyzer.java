@@ -0,0 +1,212 @@
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Analyzes {@code BoardState} objects in the background. The analysis deepens
+ * the search one ply at a time, and publishes a {@code SearchResult} after
+ * every completed depth. If the subscriber falls behind, only the latest result
+ * is kept for it. The search stops as soon as the subscription is cancelled.
+ */
+public class Analyzer {
+
+    private final Executor executor;
+
+    private final TranspositionTable transpositionTable;
+
+    /**
+     * Creates an {@code Analyzer} object that runs the searches in the common pool.
+     */
+    public Analyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an {@code Analyzer} object.
+     *
+     * @param executor the executor the searches are run in
+     */
+    public Analyzer(Executor executor) {
+        this(executor, null);
+    }
+
+    /**
+     * Creates an {@code Analyzer} object whose searches share the given table,
+     * so that later analyses reuse the results of earlier ones.
+     *
+     * @param executor the executor the searches are run in
+     * @param transpositionTable the table shared by the searches, or {@code null} for none
+     */
+    public Analyzer(Executor executor, TranspositionTable transpositionTable) {
+        this.executor = Objects.requireNonNull(executor);
+        this.transpositionTable = transpositionTable;
+    }
+
+    /**
+     * Returns a publisher that analyzes the state given for each of its
+     * subscribers. The analysis starts when a subscriber subscribes, and
+     * is completed when the maximum depth is reached or the game is over.
+     *
+     * @param state the state to be analyzed
+     * @param maxDepth the depth at which the analysis is completed
+     * @return a publisher of the results of the analysis
+     */
+    public Flow.Publisher<SearchResult> analyze(BoardState state, int maxDepth) {
+        if (maxDepth < 1 || maxDepth > Search.MAX_PLY
+                || transpositionTable != null && !transpositionTable.accepts(state)) {
+            throw new IllegalArgumentException();
+        }
+        BoardState root = state.clone();
+        return subscriber -> {
+            var subscription = new AnalysisSubscription(Objects.requireNonNull(subscriber), root, maxDepth,
+                    transpositionTable);
+            subscriber.onSubscribe(subscription);
+            try {
+                executor.execute(subscription::run);
+            } catch (RejectedExecutionException e) {
+                subscription.finish(e);
+            }
+        };
+    }
+
+    private static class AnalysisSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super SearchResult> subscriber;
+        private final BoardState root;
+        private final int maxDepth;
+        private final TranspositionTable transpositionTable;
+
+        private volatile boolean stopRequested;
+
+        private long demand;
+        private SearchResult pending;
+        private boolean finished;
+        private Throwable failure;
+        private boolean draining;
+        private boolean terminated;
+
+        AnalysisSubscription(Flow.Subscriber<? super SearchResult> subscriber, BoardState root, int maxDepth,
+                TranspositionTable transpositionTable) {
+            this.subscriber = subscriber;
+            this.root = root;
+            this.maxDepth = maxDepth;
+            this.transpositionTable = transpositionTable;
+        }
+
+        void run() {
+            try {
+                var search = new Search(() -> stopRequested, transpositionTable);
+                for (int depth = 1; depth <= maxDepth && !stopRequested; depth++) {
+                    SearchResult result = search.search(root, depth);
+                    if (result == null) {
+                        break;
+                    }
+                    publish(result);
+                    if (result.bestMove() == null || result.isMateScore()) {
+                        break;
+                    }
+                }
+                finish(null);
+            } catch (Throwable t) {
+                finish(t);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0) {
+                    stopRequested = true;
+                    pending = null;
+                    failure = new IllegalArgumentException("non-positive request: " + n);
+                    finished = true;
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            stopRequested = true;
+            synchronized (this) {
+                terminated = true;
+                pending = null;
+            }
+        }
+
+        private void publish(SearchResult result) {
+            synchronized (this) {
+                pending = result;
+            }
+            drain();
+        }
+
+        void finish(Throwable t) {
+            synchronized (this) {
+                if (!finished) {
+                    finished = true;
+                    failure = t;
+                }
+            }
+            drain();
+        }
+
+        /**
+         * Delivers the pending result and the terminal signal to the subscriber.
+         * At most one thread delivers signals at a time, the others leave their
+         * work to it. If the subscriber throws, the subscription is cancelled
+         * and the exception is dropped.
+         */
+        private void drain() {
+            synchronized (this) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            while (true) {
+                SearchResult next = null;
+                Throwable error = null;
+                synchronized (this) {
+                    if (terminated) {
+                        draining = false;
+                        return;
+                    }
+                    if (pending != null && demand > 0) {
+                        next = pending;
+                        pending = null;
+                        demand--;
+                    } else if (finished && (pending == null || failure != null)) {
+                        terminated = true;
+                        error = failure;
+                    } else {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    if (next != null) {
+                        subscriber.onNext(next);
+                    } else if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                } catch (Throwable t) {
+                    // a subscriber that throws is treated as if it had cancelled
+                    stopRequested = true;
+                    synchronized (this) {
+                        terminated = true;
+                        pending = null;
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
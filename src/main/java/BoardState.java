@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -7,28 +8,75 @@ import java.util.Objects;
 public class BoardState implements Cloneable {
 
     /**
-     * The size of the board the game is played on.
+     * The size of the board the game is played on by default.
      */
     public static final int BOARD_SIZE = 8;
 
+    /**
+     * The number of dogs the game is played with by default.
+     */
+    public static final int NUMBER_OF_DOGS = 4;
+
+    /**
+     * The largest number of squares whose occupancy fits in a single {@code long}.
+     */
+    private static final int MAX_SQUARES_IN_SINGLE_WORD = Long.SIZE;
+
+    /**
+     * The number of rows and columns of the board.
+     */
+    private final int boardSize;
+
     /**
      * The array containing the pieces.
      */
     private Piece[] pieces;
 
+    /**
+     * The occupancy of the squares if the board has at most 64 squares. The bit
+     * {@code row * boardSize + col} is set if the square is occupied by a piece.
+     */
+    private long occupancy;
+
+    /**
+     * The occupancy of the squares if the board has more than 64 squares,
+     * {@code null} otherwise. The squares are numbered the same way as in
+     * {@link #occupancy}, square {@code i} is stored in word {@code i / 64}.
+     */
+    private long[] wideOccupancy;
+
     /**
      * The type of the piece that can be moved next time.
      */
     private PieceType pieceTypeToMove;
 
     /**
-     * Creates a {@code BoardState} object with the five pieces given.
-     * This constructor makes it possible to define the pieces with
-     * positions that are different from the ordinary ones. The first piece
+     * Creates a {@code BoardState} object on a board of the default size with
+     * the pieces given. This constructor makes it possible to define the pieces
+     * with positions that are different from the ordinary ones. The first piece
      * must be the fox, the order of the dogs is arbitrary.
      * @param pieces The pieces with which the Fox Catcher game is played.
      */
     public BoardState(PieceType pieceTypeToMove, Piece... pieces) {
+        this(BOARD_SIZE, pieceTypeToMove, pieces);
+    }
+
+    /**
+     * Creates a {@code BoardState} object on a board of the given size with the
+     * pieces given. The first piece must be the fox, the order of the dogs is
+     * arbitrary, and there must be at least one dog.
+     * @param boardSize The number of rows and columns of the board.
+     * @param pieceTypeToMove The type of the piece that can be moved first.
+     * @param pieces The pieces with which the Fox Catcher game is played.
+     */
+    public BoardState(int boardSize, PieceType pieceTypeToMove, Piece... pieces) {
+        if (boardSize < 2) {
+            throw new IllegalArgumentException();
+        }
+        this.boardSize = boardSize;
+        if (boardSize * boardSize > MAX_SQUARES_IN_SINGLE_WORD) {
+            this.wideOccupancy = new long[(boardSize * boardSize + Long.SIZE - 1) / Long.SIZE];
+        }
         if (arePiecePositionsValid(pieces)) {
             if (pieces[0].getPieceType() != PieceType.FOX) {
                 throw new IllegalArgumentException();
@@ -45,38 +93,66 @@ public class BoardState implements Cloneable {
      * is arbitrary.
      */
     public BoardState(PieceType pieceTypeToMove) {
-        this(pieceTypeToMove,
-                new Piece(PieceType.FOX, new Position(0, 2)),
-                new Piece(PieceType.DOG, new Position(7, 1)),
-                new Piece(PieceType.DOG, new Position(7, 3)),
-                new Piece(PieceType.DOG, new Position(7, 5)),
-                new Piece(PieceType.DOG, new Position(7, 7)));
+        this(BOARD_SIZE, NUMBER_OF_DOGS, pieceTypeToMove);
+    }
+
+    /**
+     * Creates a {@code BoardState} object that represents the initial state of
+     * the game on a board of the given size. The dogs are placed on every other
+     * square of the last row starting from the left, so that they stand on the
+     * same color as the fox, which is placed in the first row, near the middle
+     * of the left half of the board.
+     * @param boardSize The number of rows and columns of the board.
+     * @param numberOfDogs The number of dogs.
+     * @param pieceTypeToMove The type of the piece that can be moved first.
+     */
+    public BoardState(int boardSize, int numberOfDogs, PieceType pieceTypeToMove) {
+        this(boardSize, pieceTypeToMove, initialPieces(boardSize, numberOfDogs));
+    }
+
+    private static Piece[] initialPieces(int boardSize, int numberOfDogs) {
+        int firstDogCol = (boardSize - 1) % 2;
+        if (boardSize < 2 || numberOfDogs < 1 || firstDogCol + 2 * (numberOfDogs - 1) >= boardSize) {
+            throw new IllegalArgumentException();
+        }
+        Piece[] pieces = new Piece[numberOfDogs + 1];
+        pieces[0] = new Piece(PieceType.FOX, new Position(0, (boardSize / 2 - 1) & ~1));
+        for (int i = 1; i <= numberOfDogs; i++) {
+            pieces[i] = new Piece(PieceType.DOG, new Position(boardSize - 1, firstDogCol + 2 * (i - 1)));
+        }
+        return pieces;
     }
 
     private boolean isPositionValid(Position position) {
-        return position.row() >= 0 && position.row() < BOARD_SIZE
-                && position.col() >= 0 && position.col() < BOARD_SIZE;
+        return position.row() >= 0 && position.row() < boardSize
+                && position.col() >= 0 && position.col() < boardSize;
     }
 
     private boolean arePiecePositionsValid(Piece[] pieces) {
-        if (pieces.length != 5) {
+        if (pieces.length < 2) {
             throw new IllegalArgumentException();
         }
-        for (int i = 0; i < pieces.length; i++) {
-            if (!isPositionValid(pieces[i].getPosition())) {
+        for (var piece : pieces) {
+            if (!isPositionValid(piece.getPosition())) {
                 throw new IllegalArgumentException();
             }
-            if (i < pieces.length - 1) {
-                for (int j = i + 1; j < pieces.length; j++) {
-                    if (pieces[i].getPosition().equals(pieces[j].getPosition())) {
-                        throw new IllegalArgumentException();
-                    }
-                }
+            int square = squareOf(piece.getPosition());
+            if (isOccupied(square)) {
+                throw new IllegalArgumentException();
             }
+            setOccupied(square);
         }
         return true;
     }
 
+    /**
+     * Returns the number of rows and columns of the board.
+     * @return The number of rows and columns of the board.
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
     /**
      * Returns the number of pieces on the board.
      * @return The number of pieces on the board.
@@ -95,6 +171,24 @@ public class BoardState implements Cloneable {
         return pieces[index].clone();
     }
 
+    /**
+     * Returns the row of the piece at the given index without copying the piece.
+     * @param index The index of the piece.
+     * @return The row of the piece at the given index.
+     */
+    int getRow(int index) {
+        return pieces[index].getPosition().row();
+    }
+
+    /**
+     * Returns the column of the piece at the given index without copying the piece.
+     * @param index The index of the piece.
+     * @return The column of the piece at the given index.
+     */
+    int getCol(int index) {
+        return pieces[index].getPosition().col();
+    }
+
     /**
      * Returns the type of the piece that can be moved next.
      * @return
@@ -124,42 +218,7 @@ public class BoardState implements Cloneable {
      * returns false.
      */
     private boolean canMoveFox(Direction direction) {
-        if (this.pieceTypeToMove != PieceType.FOX) {
-            return false;
-        }
-        if (direction == Direction.UP_LEFT) {
-            if (isInFirstRow(0) || isInFirstColumn(0)) {
-                return false;
-            }
-            if (isSquareEmpty(this.pieces[0].getPosition().getPositionAt(Direction.UP_LEFT))) {
-                return true;
-            }
-            return false;
-        } else if (direction == Direction.UP_RIGHT) {
-            if (isInFirstRow(0) || isInLastColumn(0)) {
-                return false;
-            }
-            if (isSquareEmpty(this.pieces[0].getPosition().getPositionAt(Direction.UP_RIGHT))) {
-                return true;
-            }
-            return false;
-        } else if (direction == Direction.DOWN_LEFT) {
-            if (isInLastRow(0) || isInFirstColumn(0)) {
-                return false;
-            }
-            if (isSquareEmpty(this.pieces[0].getPosition().getPositionAt(Direction.DOWN_LEFT))) {
-                return true;
-            }
-            return false;
-        } else { // direction == Direction.DOWN_RIGHT
-            if (isInLastRow(0) || isInLastColumn(0)) {
-                return false;
-            }
-            if (isSquareEmpty(this.pieces[0].getPosition().getPositionAt(Direction.DOWN_RIGHT))) {
-                return true;
-            }
-            return false;
-        }
+        return this.pieceTypeToMove == PieceType.FOX && isTargetSquareFree(0, direction);
     }
 
     /**
@@ -171,28 +230,25 @@ public class BoardState implements Cloneable {
      * If moving the dog in the given direction is not possible, the method returns false.
      */
     private boolean canMoveDog(int index, Direction direction) {
-        if (this.pieceTypeToMove != PieceType.DOG) {
-            return false;
-        }
-        if (direction == Direction.UP_LEFT) {
-            if (isInFirstRow(index) || isInFirstColumn(index)) {
-                return false;
-            }
-            if (isSquareEmpty(this.pieces[index].getPosition().getPositionAt(Direction.UP_LEFT))) {
-                return true;
-            }
-            return false;
-        } else if (direction == Direction.UP_RIGHT) {
-            if (isInFirstRow(index) || isInLastColumn(index)) {
-                return false;
-            }
-            if (isSquareEmpty(this.pieces[index].getPosition().getPositionAt(Direction.UP_RIGHT))) {
-                return true;
-            }
-            return false;
-        } else {
-            throw new IllegalArgumentException();
-        }
+        // dogs can only move upwards
+        return this.pieceTypeToMove == PieceType.DOG && direction.getRowChange() < 0
+                && isTargetSquareFree(index, direction);
+    }
+
+    /**
+     * Returns true if the square next to the piece at the given index in the
+     * specified direction is on the board and is empty.
+     * @param index The index of the piece.
+     * @param direction The direction in which the square is looked for.
+     * @return True if the square next to the piece in the given direction is
+     * on the board and is empty.
+     */
+    private boolean isTargetSquareFree(int index, Direction direction) {
+        Position position = pieces[index].getPosition();
+        int row = position.row() + direction.getRowChange();
+        int col = position.col() + direction.getColChange();
+        return row >= 0 && row < boardSize && col >= 0 && col < boardSize
+                && !isOccupied(row * boardSize + col);
     }
 
     public void move(int index, Direction direction) {
@@ -208,35 +264,54 @@ public class BoardState implements Cloneable {
 
     private void moveFox(Direction direction) {
         if (canMoveFox(direction)) {
-            pieces[0].getPosition().setTo(direction);
+            movePiece(0, direction);
         }
     }
 
     private void moveDog(int index, Direction direction) {
         if (canMoveDog(index, direction)) {
-            pieces[index].getPosition().setTo(direction);
+            movePiece(index, direction);
         }
     }
 
+    private void movePiece(int index, Direction direction) {
+        Position position = pieces[index].getPosition();
+        clearOccupied(squareOf(position));
+        position.setTo(direction);
+        setOccupied(squareOf(position));
+    }
+
+    /**
+     * Returns a copy of this state in which the piece at the given index has been
+     * moved in the direction specified, and the other side is to move. The move
+     * must be legal in this state.
+     * @param index The index of the piece to be moved.
+     * @param direction The direction in which the piece should be moved.
+     * @return The state reached by making the move given.
+     */
+    BoardState afterMove(int index, Direction direction) {
+        BoardState copy = clone();
+        copy.move(index, direction);
+        copy.pieceTypeToMove = pieceTypeToMove == PieceType.FOX ? PieceType.DOG : PieceType.FOX;
+        return copy;
+    }
+
     public boolean isGoal() {
         return foxWins() || dogWins();
     }
 
     public boolean foxWins() {
-        int numberOfBypassedDogs = 0;
-        for (int i = 1; i < 5; i++) {
-            if (pieces[0].getPosition().row() > pieces[i].getPosition().row()) {
-                numberOfBypassedDogs++;
+        int foxRow = pieces[0].getPosition().row();
+        for (int i = 1; i < pieces.length; i++) {
+            if (foxRow <= pieces[i].getPosition().row()) {
+                return false;
             }
         }
-        if (numberOfBypassedDogs == 4) {
-            return true;
-        }
-        return false;
+        return true;
     }
 
     public boolean dogWins() {
-        if (getPossibleMoves(0).isEmpty()) {
+        if (this.pieceTypeToMove == PieceType.FOX && getPossibleMoves(0).isEmpty()) {
             return true;
         }
         return false;
@@ -262,73 +337,57 @@ public class BoardState implements Cloneable {
      */
 
     public boolean isSquareEmpty(Position position) {
-        for (var piece : pieces) {
-            if (piece.getPosition().equals(position)) {
-                return false;
-            }
-        }
-        return true;
+        return !isPositionValid(position) || !isOccupied(squareOf(position));
     }
 
     /**
-     * Returns true if the piece at the specified index is in the first row
-     * of the board. Otherwise, the method returns false. Index 0 represents
-     * the fox, and the remaining indexes represent the dogs.
-     * @param index The index of the piece.
-     * @return True if the piece at the given index is in the first row
-     * of the board. Otherwise, the method returns false;
+     * Returns the position of this state packed into a {@code long}, in the same
+     * way as {@link CompactBoard#positionKey()}.
+     * @return The position of this state packed into a {@code long}.
+     * @throws IllegalStateException if the position does not fit into a {@code long}.
      */
-    private boolean isInFirstRow(int index) {
-        if (isIndexInvalid(index)) {
-            throw new IllegalArgumentException();
+    public long positionKey() {
+        int bitsPerSquare = Integer.SIZE - Integer.numberOfLeadingZeros(boardSize * boardSize - 1);
+        if (1 + pieces.length * bitsPerSquare >= Long.SIZE) {
+            throw new IllegalStateException();
+        }
+        int[] dogSquares = new int[pieces.length - 1];
+        for (int i = 1; i < pieces.length; i++) {
+            dogSquares[i - 1] = squareOf(pieces[i].getPosition());
         }
-        return pieces[index].getPosition().row() == 0;
+        Arrays.sort(dogSquares);
+        long key = squareOf(pieces[0].getPosition());
+        for (int square : dogSquares) {
+            key = key << bitsPerSquare | square;
+        }
+        return key << 1 | (pieceTypeToMove == PieceType.DOG ? 1 : 0);
     }
 
-    /**
-     * Returns true if the piece at the specified index is in the
-     * last row of the board. Otherwise, the method returns false.
-     * Index 0 represents the fox, and the other indexes from 1 to 4
-     * represent the dogs.
-     * @param index The index of the piece.
-     * @return True if the piece at the specified index is in the
-     * last row of the board. Otherwise, the method returns false.
-     */
-    private boolean isInLastRow(int index) {
-        if (isIndexInvalid(index)) {
-            throw new IllegalArgumentException();
+    private int squareOf(Position position) {
+        return position.row() * boardSize + position.col();
+    }
+
+    private boolean isOccupied(int square) {
+        if (wideOccupancy == null) {
+            return (occupancy >>> square & 1L) != 0;
         }
-        return pieces[index].getPosition().row() == BOARD_SIZE - 1;
+        return (wideOccupancy[square >>> 6] >>> square & 1L) != 0;
     }
 
-    /**
-     * Returns true if the piece at the given index is in the first column
-     * of the board. Otherwise, the method returns false. Index 0 refers to
-     * the fox, and the remaining indexes from 1 to 4 refer to the dogs.
-     * @param index The index of the piece.
-     * @return True if the piece at the specified index is in the first column
-     * of the board. Otherwise, the method returns false.
-     */
-    private boolean isInFirstColumn(int index) {
-        if (isIndexInvalid(index)) {
-            throw new IllegalArgumentException();
+    private void setOccupied(int square) {
+        if (wideOccupancy == null) {
+            occupancy |= 1L << square;
+        } else {
+            wideOccupancy[square >>> 6] |= 1L << square;
         }
-        return pieces[index].getPosition().col() == 0;
     }
 
-    /**
-     * Returns true if the piece at the given index is in the last column of the board.
-     * Otherwise, this method returns false. Index 0 represents the fox, and the other
-     * indexes represent the dogs.
-     * @param index The index of the piece.
-     * @return True if the piece at the given index is in the last column of the board.
-     * Otherwise, this method returns false
-     */
-    private boolean isInLastColumn(int index) {
-        if (isIndexInvalid(index)) {
-            throw new IllegalArgumentException();
+    private void clearOccupied(int square) {
+        if (wideOccupancy == null) {
+            occupancy &= ~(1L << square);
+        } else {
+            wideOccupancy[square >>> 6] &= ~(1L << square);
         }
-        return pieces[index].getPosition().col() == BOARD_SIZE - 1;
     }
 
     private boolean isIndexInvalid(int index) {
@@ -341,27 +400,23 @@ public class BoardState implements Cloneable {
             return true;
         }
         return (o instanceof BoardState boardState) &&
+                this.boardSize == boardState.boardSize &&
                 this.pieceTypeToMove == boardState.pieceTypeToMove &&
-                this.pieces.equals(boardState.pieces);
+                Arrays.equals(this.pieces, boardState.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieces, pieceTypeToMove);
+        return Objects.hash(boardSize, Arrays.hashCode(pieces), pieceTypeToMove);
     }
 
     @Override
-    public String toString() { // "{DOG, [FOX, (0, 2)], [...], ...}"
-        String result = "{";
-        result += pieceTypeToMove + ", ";
+    public String toString() { // "{DOG, [FOX: (0,2)], [DOG: (7,1)], ...}"
+        StringBuilder result = new StringBuilder().append('{').append(pieceTypeToMove);
         for (var piece : pieces) {
-            if (!piece.equals(pieces[pieces.length - 1])) {
-                result += piece.toString() + "], ";
-            } else {
-                result += piece.toString() + "]}";
-            }
+            result.append(", [").append(piece).append(']');
         }
-        return result;
+        return result.append('}').toString();
     }
 
     @Override
@@ -373,6 +428,9 @@ public class BoardState implements Cloneable {
             throw new AssertionError();
         }
         copy.pieces = deepClone(this.pieces);
+        if (this.wideOccupancy != null) {
+            copy.wideOccupancy = this.wideOccupancy.clone();
+        }
         return copy;
     }
 
@@ -0,0 +1,352 @@
+import java.util.Arrays;
+
+/**
+ * A mutable, allocation-free representation of the state of the Fox Catcher game.
+ * It follows the same rules as {@code BoardState}, but stores the pieces as
+ * primitive coordinates so that it can be reused to play through many games.
+ * Index 0 refers to the fox, and the remaining indexes refer to the dogs.
+ */
+public class CompactBoard {
+
+    /**
+     * The directions in declaration order, cached to avoid the copy made by
+     * {@code Direction.values()}.
+     */
+    static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int boardSize;
+
+    private final int[] rows;
+
+    private final int[] cols;
+
+    /**
+     * The occupancy of the squares if the board has at most 64 squares.
+     * The bit {@code row * boardSize + col} is set if the square is occupied.
+     */
+    private long occupancy;
+
+    /**
+     * The occupancy of the squares if the board has more than 64 squares,
+     * {@code null} otherwise.
+     */
+    private final long[] wideOccupancy;
+
+    private PieceType pieceTypeToMove;
+
+    /**
+     * The number of bits a square index takes up in a position key.
+     */
+    private final int bitsPerSquare;
+
+    /**
+     * Scratch space for sorting the squares of the dogs when computing position keys.
+     */
+    private final int[] dogSquares;
+
+    /**
+     * Creates a {@code CompactBoard} object that holds the same state as the
+     * {@code BoardState} object given.
+     *
+     * @param state the state to be copied
+     */
+    public CompactBoard(BoardState state) {
+        this.boardSize = state.getBoardSize();
+        this.rows = new int[state.getNumberOfPieces()];
+        this.cols = new int[state.getNumberOfPieces()];
+        this.wideOccupancy = boardSize * boardSize > Long.SIZE
+                ? new long[(boardSize * boardSize + Long.SIZE - 1) / Long.SIZE]
+                : null;
+        this.bitsPerSquare = Integer.SIZE - Integer.numberOfLeadingZeros(boardSize * boardSize - 1);
+        this.dogSquares = new int[rows.length - 1];
+        set(state);
+    }
+
+    /**
+     * Makes this board hold the same state as the {@code BoardState} object given.
+     * The board size and the number of pieces must match.
+     *
+     * @param state the state to be copied
+     */
+    public void set(BoardState state) {
+        if (state.getBoardSize() != boardSize || state.getNumberOfPieces() != rows.length) {
+            throw new IllegalArgumentException();
+        }
+        clearOccupancy();
+        for (int i = 0; i < rows.length; i++) {
+            Position position = state.getPiece(i).getPosition();
+            rows[i] = position.row();
+            cols[i] = position.col();
+            setOccupied(rows[i] * boardSize + cols[i]);
+        }
+        pieceTypeToMove = state.getPieceTypeToMove();
+    }
+
+    /**
+     * Makes this board hold the same state as the board given without allocating.
+     * The board size and the number of pieces must match.
+     *
+     * @param other the board to be copied
+     */
+    public void set(CompactBoard other) {
+        if (other.boardSize != boardSize || other.rows.length != rows.length) {
+            throw new IllegalArgumentException();
+        }
+        System.arraycopy(other.rows, 0, rows, 0, rows.length);
+        System.arraycopy(other.cols, 0, cols, 0, cols.length);
+        occupancy = other.occupancy;
+        if (wideOccupancy != null) {
+            System.arraycopy(other.wideOccupancy, 0, wideOccupancy, 0, wideOccupancy.length);
+        }
+        pieceTypeToMove = other.pieceTypeToMove;
+    }
+
+    /**
+     * {@return a {@code BoardState} object holding the state of this board}
+     */
+    public BoardState toBoardState() {
+        Piece[] pieces = new Piece[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            pieces[i] = new Piece(i == 0 ? PieceType.FOX : PieceType.DOG, new Position(rows[i], cols[i]));
+        }
+        return new BoardState(boardSize, pieceTypeToMove, pieces);
+    }
+
+    /**
+     * {@return the number of rows and columns of the board}
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * {@return the number of pieces on the board}
+     */
+    public int getNumberOfPieces() {
+        return rows.length;
+    }
+
+    /**
+     * {@return the row of the piece at the given index}
+     *
+     * @param index the index of the piece
+     */
+    public int getRow(int index) {
+        return rows[index];
+    }
+
+    /**
+     * {@return the column of the piece at the given index}
+     *
+     * @param index the index of the piece
+     */
+    public int getCol(int index) {
+        return cols[index];
+    }
+
+    /**
+     * {@return the type of the piece that can be moved next}
+     */
+    public PieceType getPieceTypeToMove() {
+        return pieceTypeToMove;
+    }
+
+    /**
+     * Sets the type of the piece that can be moved next.
+     *
+     * @param pieceTypeToMove the type of the piece that can be moved next
+     */
+    public void setPieceTypeToMove(PieceType pieceTypeToMove) {
+        this.pieceTypeToMove = pieceTypeToMove;
+    }
+
+    /**
+     * {@return whether the square at the given coordinates is on the board and is empty}
+     *
+     * @param row the row of the square
+     * @param col the column of the square
+     */
+    public boolean isSquareFree(int row, int col) {
+        return row >= 0 && row < boardSize && col >= 0 && col < boardSize
+                && !isOccupied(row * boardSize + col);
+    }
+
+    /**
+     * Returns true if the piece at the given index can be moved in the direction
+     * specified, following the same rules as {@link BoardState#canMove}.
+     *
+     * @param index the index of the piece
+     * @param direction the direction in which the piece should be moved
+     * @return true if the piece can be moved in the given direction
+     */
+    public boolean canMove(int index, Direction direction) {
+        if (index < 0 || index >= rows.length) {
+            throw new IllegalArgumentException();
+        }
+        if (index == 0) {
+            if (pieceTypeToMove != PieceType.FOX) {
+                return false;
+            }
+        } else if (pieceTypeToMove != PieceType.DOG || direction.getRowChange() > 0) {
+            return false;
+        }
+        return isSquareFree(rows[index] + direction.getRowChange(), cols[index] + direction.getColChange());
+    }
+
+    /**
+     * Moves the piece at the given index in the direction specified if the move
+     * is legal, and passes the turn to the other side.
+     *
+     * @param index the index of the piece
+     * @param direction the direction in which the piece should be moved
+     * @return true if the move was legal and has been made, false if the board
+     * has not been changed
+     */
+    public boolean move(int index, Direction direction) {
+        if (!canMove(index, direction)) {
+            return false;
+        }
+        clearOccupied(rows[index] * boardSize + cols[index]);
+        rows[index] += direction.getRowChange();
+        cols[index] += direction.getColChange();
+        setOccupied(rows[index] * boardSize + cols[index]);
+        pieceTypeToMove = pieceTypeToMove == PieceType.FOX ? PieceType.DOG : PieceType.FOX;
+        return true;
+    }
+
+    /**
+     * {@return whether the side to move has at least one legal move}
+     */
+    public boolean hasLegalMoves() {
+        int first = pieceTypeToMove == PieceType.FOX ? 0 : 1;
+        int last = pieceTypeToMove == PieceType.FOX ? 0 : rows.length - 1;
+        for (int i = first; i <= last; i++) {
+            for (var direction : DIRECTIONS) {
+                if (canMove(i, direction)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return whether the fox has passed all the dogs, see {@link BoardState#foxWins}}
+     */
+    public boolean foxWins() {
+        int foxRow = rows[0];
+        for (int i = 1; i < rows.length; i++) {
+            if (foxRow <= rows[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@return whether the fox is to move and cannot move, see {@link BoardState#dogWins}}
+     */
+    public boolean dogWins() {
+        return pieceTypeToMove == PieceType.FOX && !hasLegalMoves();
+    }
+
+    /**
+     * {@return whether the game is over, see {@link BoardState#isGoal}}
+     */
+    public boolean isGoal() {
+        return foxWins() || dogWins();
+    }
+
+    /**
+     * {@return whether the positions of this board can be packed into a {@code long}
+     * by {@link #positionKey()}}
+     */
+    public boolean hasPositionKeys() {
+        return 1 + rows.length * bitsPerSquare < Long.SIZE;
+    }
+
+    /**
+     * Returns the position of this board packed into a {@code long}. Bit 0 is set
+     * if the dogs are to move, it is followed by the square of the fox and the
+     * squares of the dogs in ascending order, where the square of a piece is
+     * {@code row * boardSize + col}. Since the dogs are sorted, positions that
+     * only differ in the order of the dogs get the same key. A key is never 0
+     * and never negative.
+     *
+     * @return the position of this board packed into a {@code long}
+     * @throws IllegalStateException if the position does not fit into a {@code long}
+     */
+    public long positionKey() {
+        if (!hasPositionKeys()) {
+            throw new IllegalStateException();
+        }
+        for (int i = 1; i < rows.length; i++) {
+            int square = rows[i] * boardSize + cols[i];
+            int j = i - 1;
+            while (j > 0 && dogSquares[j - 1] > square) {
+                dogSquares[j] = dogSquares[j - 1];
+                j--;
+            }
+            dogSquares[j] = square;
+        }
+        long key = rows[0] * boardSize + cols[0];
+        for (int square : dogSquares) {
+            key = key << bitsPerSquare | square;
+        }
+        return key << 1 | (pieceTypeToMove == PieceType.DOG ? 1 : 0);
+    }
+
+    /**
+     * Makes this board hold the position packed into the key given, see
+     * {@link #positionKey()}.
+     *
+     * @param key a key returned by {@link #positionKey()} of a board of the same
+     * size and number of pieces
+     */
+    public void setPositionKey(long key) {
+        if (!hasPositionKeys()) {
+            throw new IllegalStateException();
+        }
+        clearOccupancy();
+        pieceTypeToMove = (key & 1) != 0 ? PieceType.DOG : PieceType.FOX;
+        key >>>= 1;
+        long mask = (1L << bitsPerSquare) - 1;
+        for (int i = rows.length - 1; i >= 0; i--) {
+            int square = (int) (key & mask);
+            key >>>= bitsPerSquare;
+            rows[i] = square / boardSize;
+            cols[i] = square % boardSize;
+            setOccupied(square);
+        }
+    }
+
+    private boolean isOccupied(int square) {
+        if (wideOccupancy == null) {
+            return (occupancy >>> square & 1L) != 0;
+        }
+        return (wideOccupancy[square >>> 6] >>> square & 1L) != 0;
+    }
+
+    private void setOccupied(int square) {
+        if (wideOccupancy == null) {
+            occupancy |= 1L << square;
+        } else {
+            wideOccupancy[square >>> 6] |= 1L << square;
+        }
+    }
+
+    private void clearOccupied(int square) {
+        if (wideOccupancy == null) {
+            occupancy &= ~(1L << square);
+        } else {
+            wideOccupancy[square >>> 6] &= ~(1L << square);
+        }
+    }
+
+    private void clearOccupancy() {
+        occupancy = 0;
+        if (wideOccupancy != null) {
+            Arrays.fill(wideOccupancy, 0);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * A thread-safe set of {@code long} values stored outside the Java heap. The
+ * values are spread over independently locked {@code OffHeapLongSet} segments
+ * by their hash, so threads adding different values rarely wait for each other,
+ * and each segment is resized on its own. The value 0 cannot be added to the set.
+ */
+public class ConcurrentOffHeapLongSet {
+
+    private final OffHeapLongSet[] segments;
+
+    private final int segmentShift;
+
+    /**
+     * Creates an empty {@code ConcurrentOffHeapLongSet} object with four segments
+     * per available processor.
+     *
+     * @param expectedSize the number of values the set is expected to hold
+     */
+    public ConcurrentOffHeapLongSet(int expectedSize) {
+        this(expectedSize, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an empty {@code ConcurrentOffHeapLongSet} object.
+     *
+     * @param expectedSize the number of values the set is expected to hold
+     * @param concurrencyLevel the number of segments, rounded up to a power of two
+     */
+    public ConcurrentOffHeapLongSet(int expectedSize, int concurrencyLevel) {
+        if (expectedSize < 0 || concurrencyLevel < 1 || concurrencyLevel > 1 << 16) {
+            throw new IllegalArgumentException();
+        }
+        int numberOfSegments = Integer.highestOneBit(2 * concurrencyLevel - 1);
+        segments = new OffHeapLongSet[numberOfSegments];
+        for (int i = 0; i < numberOfSegments; i++) {
+            segments[i] = new OffHeapLongSet(expectedSize / numberOfSegments + 1);
+        }
+        segmentShift = Integer.SIZE - Integer.numberOfTrailingZeros(numberOfSegments);
+    }
+
+    private OffHeapLongSet segmentOf(long value) {
+        // the low bits of the hash select the slot within the segment, the high bits the segment
+        return segments[segments.length == 1 ? 0 : OffHeapLongSet.hash(value) >>> segmentShift];
+    }
+
+    /**
+     * {@return whether the set contains the given value}
+     *
+     * @param value the value to be looked for
+     */
+    public boolean contains(long value) {
+        OffHeapLongSet segment = segmentOf(value);
+        synchronized (segment) {
+            return segment.contains(value);
+        }
+    }
+
+    /**
+     * Adds the given value to the set.
+     *
+     * @param value the value to be added, which must not be 0
+     * @return true if the value has been added, false if it was already in the set
+     */
+    public boolean add(long value) {
+        OffHeapLongSet segment = segmentOf(value);
+        synchronized (segment) {
+            return segment.add(value);
+        }
+    }
+
+    /**
+     * {@return the number of values in the set}
+     */
+    public long size() {
+        long size = 0;
+        for (var segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * {@return the number of bytes allocated outside the heap}
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (var segment : segments) {
+            synchronized (segment) {
+                bytes += segment.offHeapBytes();
+            }
+        }
+        return bytes;
+    }
+}
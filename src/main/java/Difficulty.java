@@ -0,0 +1,64 @@
+/**
+ * Represents the strength levels of the computer player. A level limits how
+ * many nodes and how many plies the search may look at, how much worse than
+ * the best move a randomly chosen move may be, and how long choosing a move may
+ * take. It also determines the share of the threads of an {@code AiPlayerPool}
+ * reserved for the level.
+ */
+public enum Difficulty {
+
+    BEGINNER(2_000, 2, 40, 50, 10),
+    CASUAL(20_000, 4, 12, 100, 20),
+    ADVANCED(200_000, 8, 4, 250, 30),
+    EXPERT(2_000_000, Search.MAX_PLY, 0, 1_000, 40);
+
+    private final long nodeBudget;
+    private final int maxDepth;
+    private final int scoreMargin;
+    private final long latencyCeilingMillis;
+    private final int poolSharePercent;
+
+    Difficulty(long nodeBudget, int maxDepth, int scoreMargin, long latencyCeilingMillis, int poolSharePercent) {
+        this.nodeBudget = nodeBudget;
+        this.maxDepth = maxDepth;
+        this.scoreMargin = scoreMargin;
+        this.latencyCeilingMillis = latencyCeilingMillis;
+        this.poolSharePercent = poolSharePercent;
+    }
+
+    /**
+     * {@return the number of nodes the search may visit to choose a move}
+     */
+    public long getNodeBudget() {
+        return nodeBudget;
+    }
+
+    /**
+     * {@return the number of plies the search may look ahead}
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * {@return how much lower than the best score the score of the chosen move
+     * may be; the move is chosen randomly among the moves within this margin}
+     */
+    public int getScoreMargin() {
+        return scoreMargin;
+    }
+
+    /**
+     * {@return the time, in milliseconds, within which a move must be chosen}
+     */
+    public long getLatencyCeilingMillis() {
+        return latencyCeilingMillis;
+    }
+
+    /**
+     * {@return the percentage of the threads of a pool reserved for this level}
+     */
+    public int getPoolSharePercent() {
+        return poolSharePercent;
+    }
+}
@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Checks that every move of recorded games is legal. A game log contains one
+ * game per line. A line starts with {@code F} or {@code D}, the type of the
+ * piece that moves first from the initial state, followed by the moves separated
+ * by whitespace. A move is the index of the piece followed by {@code UL},
+ * {@code UR}, {@code DL} or {@code DR}, for example {@code F 0DR 3UL 0DL}.
+ * Blank lines and lines starting with {@code #} are skipped.
+ *
+ * <p>The games are replayed on a reused {@code CompactBoard}, so a log is read
+ * and verified without allocating per move. Several logs are verified in parallel.
+ */
+public class GameLogVerifier {
+
+    /**
+     * The ply reported for a line whose first token is not {@code F} or {@code D}.
+     */
+    public static final int MALFORMED_HEADER = 0;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final BoardState initialState;
+
+    /**
+     * Represents a game that contains an illegal or malformed move.
+     *
+     * @param source the name of the log the game was read from
+     * @param lineNumber the number of the line of the game, starting from 1
+     * @param ply the number of the first illegal move of the game, starting
+     * from 1, or {@link #MALFORMED_HEADER}
+     */
+    public record IllegalGame(String source, long lineNumber, int ply) {
+    }
+
+    /**
+     * Represents the outcome of verifying one or more game logs.
+     *
+     * @param games the number of games verified
+     * @param plies the number of legal moves replayed
+     * @param illegalGames the games that contain an illegal move
+     */
+    public record Report(long games, long plies, List<IllegalGame> illegalGames) {
+
+        public Report {
+            illegalGames = List.copyOf(illegalGames);
+        }
+
+        /**
+         * {@return the report covering the games of both this and the other report}
+         *
+         * @param other the report to be merged with this one
+         */
+        public Report merge(Report other) {
+            List<IllegalGame> merged = new ArrayList<>(illegalGames);
+            merged.addAll(other.illegalGames);
+            return new Report(games + other.games, plies + other.plies, merged);
+        }
+    }
+
+    /**
+     * Creates a {@code GameLogVerifier} object for games played on a board of
+     * the default size with the default number of dogs.
+     */
+    public GameLogVerifier() {
+        this(BoardState.BOARD_SIZE, BoardState.NUMBER_OF_DOGS);
+    }
+
+    /**
+     * Creates a {@code GameLogVerifier} object for games played from the initial
+     * state of the given board size and number of dogs.
+     *
+     * @param boardSize the number of rows and columns of the board
+     * @param numberOfDogs the number of dogs
+     */
+    public GameLogVerifier(int boardSize, int numberOfDogs) {
+        this.initialState = new BoardState(boardSize, numberOfDogs, PieceType.FOX);
+    }
+
+    /**
+     * Verifies the game logs given in parallel.
+     *
+     * @param files the game logs to be verified
+     * @return the report covering the games of all the logs
+     * @throws IOException if a log cannot be read
+     */
+    public Report verify(Collection<Path> files) throws IOException {
+        try {
+            return files.parallelStream()
+                    .map(file -> {
+                        try {
+                            return verify(file);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .reduce(new Report(0, 0, List.of()), Report::merge);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Verifies a single game log.
+     *
+     * @param file the game log to be verified
+     * @return the report covering the games of the log
+     * @throws IOException if the log cannot be read
+     */
+    public Report verify(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return verify(in, file.toString());
+        }
+    }
+
+    /**
+     * Verifies the games read from the stream given. The stream is not closed.
+     *
+     * @param in the stream the games are read from
+     * @param source the name of the log used in the report
+     * @return the report covering the games read
+     * @throws IOException if the stream cannot be read
+     */
+    public Report verify(InputStream in, String source) throws IOException {
+        var initial = new CompactBoard(initialState);
+        var board = new CompactBoard(initialState);
+        var illegalGames = new ArrayList<IllegalGame>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] line = new byte[256];
+        int lineLength = 0;
+        long lineNumber = 0;
+        long games = 0;
+        long plies = 0;
+        int read;
+        boolean endOfStream = false;
+        while (!endOfStream) {
+            read = in.read(buffer);
+            endOfStream = read < 0;
+            int end = endOfStream ? 0 : read;
+            for (int i = 0; i <= end; i++) {
+                boolean endOfLine = i < end ? buffer[i] == '\n' : endOfStream && lineLength > 0;
+                if (!endOfLine) {
+                    if (i < end) {
+                        if (lineLength == line.length) {
+                            line = Arrays.copyOf(line, 2 * line.length);
+                        }
+                        line[lineLength++] = buffer[i];
+                    }
+                    continue;
+                }
+                lineNumber++;
+                if (isGame(line, lineLength)) {
+                    games++;
+                    board.set(initial);
+                    int result = verifyGame(board, line, lineLength);
+                    if (result < 0) {
+                        plies += -result - 1;
+                    } else {
+                        plies += Math.max(result - 1, 0);
+                        illegalGames.add(new IllegalGame(source, lineNumber, result));
+                    }
+                }
+                lineLength = 0;
+            }
+        }
+        return new Report(games, plies, illegalGames);
+    }
+
+    private static boolean isGame(byte[] line, int length) {
+        int i = skipWhitespace(line, 0, length);
+        return i < length && line[i] != '#';
+    }
+
+    /**
+     * Replays the game in the given line on the board given, which must hold
+     * the initial state.
+     *
+     * @param board the board the game is replayed on
+     * @param line the bytes of the line
+     * @param length the number of bytes of the line
+     * @return the number of the first illegal move, starting from 1, or
+     * {@link #MALFORMED_HEADER} if the line does not start with {@code F} or
+     * {@code D}; if all moves are legal, {@code -(n + 1)}, where {@code n} is
+     * the number of moves
+     */
+    static int verifyGame(CompactBoard board, byte[] line, int length) {
+        int i = skipWhitespace(line, 0, length);
+        if (i >= length || !isTokenEnd(line, i + 1, length)) {
+            return MALFORMED_HEADER;
+        }
+        if (line[i] == 'F') {
+            board.setPieceTypeToMove(PieceType.FOX);
+        } else if (line[i] == 'D') {
+            board.setPieceTypeToMove(PieceType.DOG);
+        } else {
+            return MALFORMED_HEADER;
+        }
+        int ply = 0;
+        i++;
+        while (true) {
+            i = skipWhitespace(line, i, length);
+            if (i >= length) {
+                return -(ply + 1);
+            }
+            ply++;
+            int index = 0;
+            int digits = 0;
+            while (i < length && line[i] >= '0' && line[i] <= '9' && digits < 9) {
+                index = 10 * index + (line[i++] - '0');
+                digits++;
+            }
+            if (digits == 0 || i + 2 > length || !isTokenEnd(line, i + 2, length)
+                    || index >= board.getNumberOfPieces()) {
+                return ply;
+            }
+            int vertical = line[i] == 'U' ? 0 : line[i] == 'D' ? 2 : -1;
+            int horizontal = line[i + 1] == 'L' ? 0 : line[i + 1] == 'R' ? 1 : -1;
+            if (vertical < 0 || horizontal < 0 || board.foxWins()
+                    || !board.move(index, CompactBoard.DIRECTIONS[vertical + horizontal])) {
+                return ply;
+            }
+            i += 2;
+        }
+    }
+
+    private static int skipWhitespace(byte[] line, int i, int length) {
+        while (i < length && isWhitespace(line[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isTokenEnd(byte[] line, int i, int length) {
+        return i >= length || isWhitespace(line[i]);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
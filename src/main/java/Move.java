@@ -0,0 +1,15 @@
+/**
+ * Represents a move, that is, a piece index and the direction in which
+ * the piece at that index is moved. Index 0 refers to the fox, and the
+ * remaining indexes refer to the dogs.
+ *
+ * @param pieceIndex the index of the piece to be moved
+ * @param direction the direction in which the piece is moved
+ */
+public record Move(int pieceIndex, Direction direction) {
+
+    @Override
+    public String toString() {
+        return String.format("%d %s", pieceIndex, direction);
+    }
+}
@@ -0,0 +1,156 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A map from {@code long} keys to {@code long} values stored outside the Java
+ * heap, in a direct buffer, using open addressing with linear probing. Each slot
+ * takes 16 bytes, the key followed by the value. The key 0 marks empty slots,
+ * so it cannot be put into the map. This class is not thread-safe.
+ */
+public class OffHeapLongLongMap {
+
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+
+    /**
+     * The largest number of slots a direct buffer can hold.
+     */
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private ByteBuffer slots;
+
+    private int capacity;
+
+    private int size;
+
+    /**
+     * Creates an empty {@code OffHeapLongLongMap} object with a small initial capacity.
+     */
+    public OffHeapLongLongMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty {@code OffHeapLongLongMap} object that can hold the given
+     * number of entries without resizing.
+     *
+     * @param expectedSize the number of entries the map is expected to hold
+     */
+    public OffHeapLongLongMap(int expectedSize) {
+        if (expectedSize < 0 || expectedSize > MAX_CAPACITY / 2) {
+            throw new IllegalArgumentException();
+        }
+        allocate(OffHeapLongSet.capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        this.capacity = capacity;
+    }
+
+    /**
+     * {@return the number of entries in the map}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@return the number of bytes allocated outside the heap}
+     */
+    public long offHeapBytes() {
+        return (long) capacity * SLOT_BYTES;
+    }
+
+    /**
+     * Returns the slot that holds the given key, or the empty slot where it would
+     * be inserted.
+     */
+    private int find(long key) {
+        int slot = OffHeapLongSet.slotOf(key, capacity);
+        while (true) {
+            long stored = slots.getLong(slot * SLOT_BYTES);
+            if (stored == key || stored == 0) {
+                return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    /**
+     * {@return whether the map contains the given key}
+     *
+     * @param key the key to be looked for
+     */
+    public boolean containsKey(long key) {
+        return key != 0 && slots.getLong(find(key) * SLOT_BYTES) == key;
+    }
+
+    /**
+     * {@return the value mapped to the given key, or the default value given if
+     * the map does not contain the key}
+     *
+     * @param key the key to be looked for
+     * @param defaultValue the value returned if the key is not found
+     */
+    public long get(long key, long defaultValue) {
+        if (key == 0) {
+            return defaultValue;
+        }
+        int slot = find(key);
+        return slots.getLong(slot * SLOT_BYTES) == key ? slots.getLong(slot * SLOT_BYTES + Long.BYTES) : defaultValue;
+    }
+
+    /**
+     * Maps the given key to the value given.
+     *
+     * @param key the key, which must not be 0
+     * @param value the value
+     * @return true if the key has been added, false if its value has been replaced
+     * @throws IllegalStateException if the key is not in the map and the map
+     * cannot grow to hold it, in which case the map is left unchanged
+     */
+    public boolean put(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException();
+        }
+        int slot = find(key);
+        boolean added = slots.getLong(slot * SLOT_BYTES) == 0;
+        boolean grow = added && size + 1 > capacity / 2;
+        if (grow && capacity * 2 > MAX_CAPACITY) {
+            throw new IllegalStateException("map is full");
+        }
+        slots.putLong(slot * SLOT_BYTES, key);
+        slots.putLong(slot * SLOT_BYTES + Long.BYTES, value);
+        if (added) {
+            size++;
+        }
+        if (grow) {
+            resize(capacity * 2);
+        }
+        return added;
+    }
+
+    /**
+     * Removes all entries from the map, keeping its capacity.
+     */
+    public void clear() {
+        for (int slot = 0; slot < capacity; slot++) {
+            slots.putLong(slot * SLOT_BYTES, 0);
+        }
+        size = 0;
+    }
+
+    private void resize(int newCapacity) {
+        ByteBuffer oldSlots = slots;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+            long key = oldSlots.getLong(oldSlot * SLOT_BYTES);
+            if (key != 0) {
+                int slot = find(key);
+                slots.putLong(slot * SLOT_BYTES, key);
+                slots.putLong(slot * SLOT_BYTES + Long.BYTES, oldSlots.getLong(oldSlot * SLOT_BYTES + Long.BYTES));
+            }
+        }
+    }
+}
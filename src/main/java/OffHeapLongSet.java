@@ -0,0 +1,184 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A set of {@code long} values stored outside the Java heap, in a direct buffer,
+ * using open addressing with linear probing. It is meant for holding large
+ * numbers of position keys, see {@link CompactBoard#positionKey()}, at 8 bytes
+ * per slot. The value 0 marks empty slots, so it cannot be added to the set.
+ * This class is not thread-safe, see {@link ConcurrentOffHeapLongSet}.
+ */
+public class OffHeapLongSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The largest number of slots a direct buffer can hold.
+     */
+    static final int MAX_CAPACITY = 1 << 27;
+
+    private ByteBuffer slots;
+
+    private int capacity;
+
+    private int size;
+
+    /**
+     * Creates an empty {@code OffHeapLongSet} object with a small initial capacity.
+     */
+    public OffHeapLongSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty {@code OffHeapLongSet} object that can hold the given
+     * number of values without resizing.
+     *
+     * @param expectedSize the number of values the set is expected to hold
+     */
+    public OffHeapLongSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException();
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * {@return the number of slots needed to hold the given number of values
+     * with a load factor of at most 1/2}
+     *
+     * @param size the number of values
+     */
+    static int capacityFor(int size) {
+        if (size > MAX_CAPACITY / 2) {
+            throw new IllegalArgumentException();
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, 2 * size - 1)) << 1);
+    }
+
+    /**
+     * {@return the hash of the given value, mixed so that every bit of the value
+     * affects the low bits as well as the high bits of the hash}
+     *
+     * @param value the value to be hashed
+     */
+    static int hash(long value) {
+        // the finalization step of MurmurHash3
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+
+    /**
+     * {@return the slot where the search for the given value starts}
+     *
+     * @param value the value to be looked for
+     * @param capacity the number of slots, a power of two
+     */
+    static int slotOf(long value, int capacity) {
+        return hash(value) & (capacity - 1);
+    }
+
+    private void allocate(int capacity) {
+        this.slots = ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder());
+        this.capacity = capacity;
+    }
+
+    /**
+     * {@return the number of values in the set}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@return the number of bytes allocated outside the heap}
+     */
+    public long offHeapBytes() {
+        return (long) capacity * Long.BYTES;
+    }
+
+    /**
+     * {@return whether the set contains the given value}
+     *
+     * @param value the value to be looked for
+     */
+    public boolean contains(long value) {
+        if (value == 0) {
+            return false;
+        }
+        for (int slot = slotOf(value, capacity); ; slot = (slot + 1) & (capacity - 1)) {
+            long stored = slots.getLong(slot * Long.BYTES);
+            if (stored == value) {
+                return true;
+            }
+            if (stored == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Adds the given value to the set.
+     *
+     * @param value the value to be added, which must not be 0
+     * @return true if the value has been added, false if it was already in the set
+     * @throws IllegalStateException if the value is not in the set and the set
+     * cannot grow to hold it, in which case the set is left unchanged
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            throw new IllegalArgumentException();
+        }
+        int slot = slotOf(value, capacity);
+        while (true) {
+            long stored = slots.getLong(slot * Long.BYTES);
+            if (stored == value) {
+                return false;
+            }
+            if (stored == 0) {
+                break;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        boolean grow = size + 1 > capacity / 2;
+        if (grow && capacity * 2 > MAX_CAPACITY) {
+            throw new IllegalStateException("set is full");
+        }
+        slots.putLong(slot * Long.BYTES, value);
+        size++;
+        if (grow) {
+            resize(capacity * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes all values from the set, keeping its capacity.
+     */
+    public void clear() {
+        for (int slot = 0; slot < capacity; slot++) {
+            slots.putLong(slot * Long.BYTES, 0);
+        }
+        size = 0;
+    }
+
+    private void resize(int newCapacity) {
+        ByteBuffer oldSlots = slots;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+            long value = oldSlots.getLong(oldSlot * Long.BYTES);
+            if (value != 0) {
+                int slot = slotOf(value, capacity);
+                while (slots.getLong(slot * Long.BYTES) != 0) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                slots.putLong(slot * Long.BYTES, value);
+            }
+        }
+    }
+}
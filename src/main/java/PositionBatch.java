@@ -0,0 +1,297 @@
+/**
+ * A batch of positions on a board of at most 8x8 squares, stored as parallel
+ * arrays: the square of the fox, the bitboard of the dogs and the side to move
+ * of each position. Square {@code row * boardSize + col} corresponds to bit
+ * {@code row * boardSize + col} of a bitboard.
+ *
+ * <p>The batch operations process all positions with the same straight-line
+ * shift-and-mask arithmetic, without branching on the positions. If the
+ * incubating {@code jdk.incubator.vector} module has been added to the boot
+ * layer, with {@code --add-modules jdk.incubator.vector} both when compiling
+ * and when running, the positions are processed with SIMD instructions by
+ * {@code VectorPositionBatchKernels}. Otherwise, and for the last few positions
+ * of a batch, plain scalar loops are used: their variable shifts and table
+ * lookups are not vectorized by the JIT compiler. Their results match those of
+ * the corresponding {@code BoardState} methods.
+ */
+public class PositionBatch {
+
+    /**
+     * The value of {@link #getSidesToMove()} for positions in which the fox is to move.
+     */
+    public static final byte FOX_TO_MOVE = 0;
+
+    /**
+     * The value of {@link #getSidesToMove()} for positions in which the dogs are to move.
+     */
+    public static final byte DOGS_TO_MOVE = 1;
+
+    /**
+     * The terminal status of positions in which the game is not over.
+     */
+    public static final byte ONGOING = 0;
+
+    /**
+     * The terminal status of positions in which the fox has passed all the dogs.
+     */
+    public static final byte FOX_WINS = 1;
+
+    /**
+     * The terminal status of positions in which the fox is to move and is trapped.
+     */
+    public static final byte DOGS_WIN = 2;
+
+    /**
+     * Whether the Vector API can be used, and makes the batch operations faster.
+     */
+    static final boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && VectorPositionBatchKernels.isUseful();
+
+    private final int boardSize;
+
+    private final int numberOfDogs;
+
+    private final long boardMask;
+
+    private final long notFirstColumn;
+
+    private final long notLastColumn;
+
+    /**
+     * The squares in the row of each square and the rows below it, indexed by square.
+     */
+    private final long[] rowAndBelow;
+
+    private final byte[] foxSquares;
+
+    private final long[] dogs;
+
+    private final byte[] sidesToMove;
+
+    private int size;
+
+    private boolean vectorized = VECTOR_API_AVAILABLE;
+
+    /**
+     * Creates an empty {@code PositionBatch} object.
+     *
+     * @param boardSize the number of rows and columns of the board, at most 8
+     * @param numberOfDogs the number of dogs of the positions
+     * @param capacity the number of positions the batch can hold
+     */
+    public PositionBatch(int boardSize, int numberOfDogs, int capacity) {
+        if (boardSize < 2 || boardSize * boardSize > Long.SIZE || numberOfDogs < 1 || capacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.boardSize = boardSize;
+        this.numberOfDogs = numberOfDogs;
+        this.boardMask = boardSize * boardSize == Long.SIZE ? -1L : (1L << boardSize * boardSize) - 1;
+        long firstColumn = 0;
+        for (int row = 0; row < boardSize; row++) {
+            firstColumn |= 1L << row * boardSize;
+        }
+        this.notFirstColumn = boardMask & ~firstColumn;
+        this.notLastColumn = boardMask & ~(firstColumn << boardSize - 1);
+        this.rowAndBelow = new long[boardSize * boardSize];
+        for (int square = 0; square < rowAndBelow.length; square++) {
+            rowAndBelow[square] = boardMask & -1L << square / boardSize * boardSize;
+        }
+        this.foxSquares = new byte[capacity];
+        this.dogs = new long[capacity];
+        this.sidesToMove = new byte[capacity];
+    }
+
+    /**
+     * {@return the number of positions in the batch}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@return the number of positions the batch can hold}
+     */
+    public int capacity() {
+        return dogs.length;
+    }
+
+    /**
+     * {@return whether the batch operations use the Vector API}
+     */
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Sets whether the batch operations use the Vector API, if it is available.
+     *
+     * @param vectorized whether the batch operations are to use the Vector API
+     */
+    void setVectorized(boolean vectorized) {
+        this.vectorized = vectorized && VECTOR_API_AVAILABLE;
+    }
+
+    /**
+     * Removes all positions from the batch.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds the given state to the batch.
+     *
+     * @param state the state to be added; its board size and number of dogs
+     * must match those of the batch
+     * @return the index of the position in the batch
+     */
+    public int add(BoardState state) {
+        if (state.getBoardSize() != boardSize || state.getNumberOfPieces() != numberOfDogs + 1
+                || size == capacity()) {
+            throw new IllegalArgumentException();
+        }
+        Position fox = state.getPiece(0).getPosition();
+        long dogBitboard = 0;
+        for (int i = 1; i < state.getNumberOfPieces(); i++) {
+            Position dog = state.getPiece(i).getPosition();
+            dogBitboard |= 1L << dog.row() * boardSize + dog.col();
+        }
+        foxSquares[size] = (byte) (fox.row() * boardSize + fox.col());
+        dogs[size] = dogBitboard;
+        sidesToMove[size] = state.getPieceTypeToMove() == PieceType.FOX ? FOX_TO_MOVE : DOGS_TO_MOVE;
+        return size++;
+    }
+
+    /**
+     * Returns the position at the given index as a {@code BoardState} object.
+     * The dogs are listed in ascending order of their squares.
+     *
+     * @param index the index of the position
+     * @return the position at the given index
+     */
+    public BoardState toBoardState(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        Piece[] pieces = new Piece[numberOfDogs + 1];
+        pieces[0] = new Piece(PieceType.FOX, new Position(foxSquares[index] / boardSize, foxSquares[index] % boardSize));
+        long remaining = dogs[index];
+        for (int i = 1; i < pieces.length; i++) {
+            int square = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            pieces[i] = new Piece(PieceType.DOG, new Position(square / boardSize, square % boardSize));
+        }
+        return new BoardState(boardSize, sidesToMove[index] == FOX_TO_MOVE ? PieceType.FOX : PieceType.DOG, pieces);
+    }
+
+    /**
+     * {@return the squares of the foxes, indexed by position}
+     */
+    public byte[] getFoxSquares() {
+        return foxSquares;
+    }
+
+    /**
+     * {@return the bitboards of the dogs, indexed by position}
+     */
+    public long[] getDogs() {
+        return dogs;
+    }
+
+    /**
+     * {@return the sides to move, {@link #FOX_TO_MOVE} or {@link #DOGS_TO_MOVE},
+     * indexed by position}
+     */
+    public byte[] getSidesToMove() {
+        return sidesToMove;
+    }
+
+    /**
+     * Computes the legal moves of every position of the batch. For a position in
+     * which the fox is to move, bit {@code d} of its fox mask is set if the fox can
+     * move in the direction of ordinal {@code d}, and its dog bitboards are empty.
+     * For a position in which the dogs are to move, the dog bitboards contain the
+     * dogs that can move up and to the left, and up and to the right, and its fox
+     * mask is 0. This is what {@link BoardState#getPossibleMoves} returns.
+     *
+     * @param foxMoves the array the fox masks are written into
+     * @param dogsUpLeft the array the bitboards of the dogs that can move up and
+     * to the left are written into
+     * @param dogsUpRight the array the bitboards of the dogs that can move up and
+     * to the right are written into
+     */
+    public void legalMoves(byte[] foxMoves, long[] dogsUpLeft, long[] dogsUpRight) {
+        int up = boardSize;
+        int start = !vectorized ? 0 : VectorPositionBatchKernels.legalMoves(size, boardSize, boardMask,
+                notFirstColumn, notLastColumn, foxSquares, dogs, sidesToMove, foxMoves, dogsUpLeft, dogsUpRight);
+        for (int i = start; i < size; i++) {
+            long fox = 1L << foxSquares[i];
+            long empty = ~(dogs[i] | fox) & boardMask;
+            // all ones if the fox is to move, all zeros otherwise
+            long foxToMove = sidesToMove[i] - 1L;
+            long upLeft = (fox & notFirstColumn) >>> up + 1 & empty;
+            long upRight = (fox & notLastColumn) >>> up - 1 & empty;
+            long downLeft = (fox & notFirstColumn) << up - 1 & empty;
+            long downRight = (fox & notLastColumn) << up + 1 & empty;
+            foxMoves[i] = (byte) (foxToMove & (nonZero(upLeft)
+                    | nonZero(upRight) << 1
+                    | nonZero(downLeft) << 2
+                    | nonZero(downRight) << 3));
+            dogsUpLeft[i] = ~foxToMove & dogs[i] & notFirstColumn & empty << up + 1;
+            dogsUpRight[i] = ~foxToMove & dogs[i] & notLastColumn & empty << up - 1;
+        }
+    }
+
+    /**
+     * Makes one move in every position of the batch, and passes the turn to the
+     * other side. The moves must be legal.
+     *
+     * @param fromSquares the squares of the pieces to be moved, indexed by position
+     * @param directions the ordinals of the directions of the moves, indexed by position
+     */
+    public void applyMoves(byte[] fromSquares, byte[] directions) {
+        int start = !vectorized ? 0 : VectorPositionBatchKernels.applyMoves(size, boardSize,
+                foxSquares, dogs, sidesToMove, fromSquares, directions);
+        for (int i = start; i < size; i++) {
+            int direction = directions[i];
+            // the row change is -1 for directions 0 and 1, and +1 for 2 and 3
+            int rowChange = (direction & 2) - 1;
+            int colChange = ((direction & 1) << 1) - 1;
+            int to = fromSquares[i] + rowChange * boardSize + colChange;
+            long foxToMove = sidesToMove[i] - 1L;
+            long moved = 1L << fromSquares[i] | 1L << to;
+            dogs[i] ^= moved & ~foxToMove;
+            foxSquares[i] = (byte) (foxSquares[i] & ~foxToMove | to & foxToMove);
+            sidesToMove[i] ^= 1;
+        }
+    }
+
+    /**
+     * Computes the terminal status of every position of the batch:
+     * {@link #FOX_WINS} if {@link BoardState#foxWins} holds, {@link #DOGS_WIN}
+     * if {@link BoardState#dogWins} holds, and {@link #ONGOING} otherwise.
+     *
+     * @param foxMoves the fox masks computed by {@link #legalMoves}
+     * @param statuses the array the statuses are written into
+     */
+    public void terminalStatuses(byte[] foxMoves, byte[] statuses) {
+        int start = !vectorized ? 0 : VectorPositionBatchKernels.terminalStatuses(size, boardSize, boardMask,
+                foxSquares, dogs, sidesToMove, foxMoves, statuses);
+        for (int i = start; i < size; i++) {
+            // the fox wins if no dog is in its row or below
+            long notPassed = dogs[i] & rowAndBelow[foxSquares[i]];
+            int foxWins = 1 - nonZero(notPassed);
+            int foxTrapped = (1 - sidesToMove[i]) & (1 - nonZero(foxMoves[i]));
+            statuses[i] = (byte) (foxWins * FOX_WINS | (1 - foxWins) * foxTrapped * DOGS_WIN);
+        }
+    }
+
+    /**
+     * {@return 1 if the given value is not 0, and 0 otherwise, computed without branching}
+     *
+     * @param value the value to be tested
+     */
+    private static int nonZero(long value) {
+        return (int) ((value | -value) >>> 63);
+    }
+}
@@ -0,0 +1,230 @@
+import java.util.Objects;
+
+/**
+ * Converts {@code BoardState} objects to and from a compact text notation, such
+ * as {@code "8 F c1 b8d8f8h8"} for the initial state with the fox to move. The
+ * notation consists of the board size, the side to move ({@code F} or {@code D}),
+ * the square of the fox and the squares of the dogs, separated by single spaces.
+ * A square is written as its column, a letter from {@code a}, followed by its row,
+ * a number from 1, so row 0 is the side the fox starts from. The dogs are written
+ * in their order in the state, without separators.
+ *
+ * <p>The formatters append to a builder or buffer supplied by the caller and do
+ * not allocate, and the parsers read the text in place, so positions can be
+ * written and read on every request without creating garbage.
+ */
+public class PositionNotation {
+
+    /**
+     * The largest board size the notation supports, limited by the letters of the columns.
+     */
+    public static final int MAX_BOARD_SIZE = 26;
+
+    private PositionNotation() {
+    }
+
+    /**
+     * {@return the maximum number of characters of the notation of a state with
+     * the given number of pieces}
+     *
+     * @param numberOfPieces the number of pieces of the state
+     */
+    public static int maxLength(int numberOfPieces) {
+        return 6 + 3 * numberOfPieces;
+    }
+
+    /**
+     * Appends the notation of the given state to the builder given.
+     *
+     * @param state the state to be formatted
+     * @param builder the builder the notation is appended to
+     * @return the builder given
+     */
+    public static StringBuilder format(BoardState state, StringBuilder builder) {
+        int boardSize = checkBoardSize(state.getBoardSize());
+        if (boardSize >= 10) {
+            builder.append((char) ('0' + boardSize / 10));
+        }
+        builder.append((char) ('0' + boardSize % 10))
+                .append(' ')
+                .append(state.getPieceTypeToMove() == PieceType.FOX ? 'F' : 'D')
+                .append(' ');
+        for (int i = 0; i < state.getNumberOfPieces(); i++) {
+            if (i == 1) {
+                builder.append(' ');
+            }
+            int rank = state.getRow(i) + 1;
+            builder.append((char) ('a' + state.getCol(i)));
+            if (rank >= 10) {
+                builder.append((char) ('0' + rank / 10));
+            }
+            builder.append((char) ('0' + rank % 10));
+        }
+        return builder;
+    }
+
+    /**
+     * Writes the notation of the given state as ASCII characters into the buffer given.
+     *
+     * @param state the state to be formatted
+     * @param buffer the buffer the notation is written to, which must have room for
+     * {@link #maxLength(int)} characters from the offset on
+     * @param offset the index the notation is written from
+     * @return the index after the last character written
+     */
+    public static int format(BoardState state, byte[] buffer, int offset) {
+        int boardSize = checkBoardSize(state.getBoardSize());
+        Objects.checkFromIndexSize(offset, maxLength(state.getNumberOfPieces()), buffer.length);
+        int i = offset;
+        if (boardSize >= 10) {
+            buffer[i++] = (byte) ('0' + boardSize / 10);
+        }
+        buffer[i++] = (byte) ('0' + boardSize % 10);
+        buffer[i++] = ' ';
+        buffer[i++] = (byte) (state.getPieceTypeToMove() == PieceType.FOX ? 'F' : 'D');
+        buffer[i++] = ' ';
+        for (int piece = 0; piece < state.getNumberOfPieces(); piece++) {
+            if (piece == 1) {
+                buffer[i++] = ' ';
+            }
+            int rank = state.getRow(piece) + 1;
+            buffer[i++] = (byte) ('a' + state.getCol(piece));
+            if (rank >= 10) {
+                buffer[i++] = (byte) ('0' + rank / 10);
+            }
+            buffer[i++] = (byte) ('0' + rank % 10);
+        }
+        return i;
+    }
+
+    private static int checkBoardSize(int boardSize) {
+        if (boardSize > MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException();
+        }
+        return boardSize;
+    }
+
+    /**
+     * Parses the given notation.
+     *
+     * @param text the notation
+     * @return the state described by the notation
+     * @throws IllegalArgumentException if the text is not a valid notation of a state
+     */
+    public static BoardState parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses the notation in the given range of the text.
+     *
+     * @param text the text containing the notation
+     * @param start the index of the first character of the notation
+     * @param end the index after the last character of the notation
+     * @return the state described by the notation
+     * @throws IllegalArgumentException if the range is not a valid notation of a state
+     */
+    public static BoardState parse(CharSequence text, int start, int end) {
+        Objects.checkFromToIndex(start, end, text.length());
+        return parseFrom(text, start, end);
+    }
+
+    /**
+     * Parses the notation written as ASCII characters in the given range of the buffer.
+     *
+     * @param buffer the buffer containing the notation
+     * @param offset the index of the first character of the notation
+     * @param length the number of characters of the notation
+     * @return the state described by the notation
+     * @throws IllegalArgumentException if the range is not a valid notation of a state
+     */
+    public static BoardState parse(byte[] buffer, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+        return parseFrom(buffer, offset, offset + length);
+    }
+
+    /**
+     * Parses a notation read from either a {@code CharSequence} or a {@code byte[]}.
+     */
+    private static BoardState parseFrom(Object source, int start, int end) {
+        int i = start;
+        int boardSize = 0;
+        while (i < end && i - start < 2 && isDigit(charAt(source, i))) {
+            boardSize = 10 * boardSize + charAt(source, i++) - '0';
+        }
+        if (boardSize < 2 || boardSize > MAX_BOARD_SIZE || charAt(source, start) == '0') {
+            throw invalid(start);
+        }
+        i = skipSpace(source, i, end);
+        PieceType pieceTypeToMove = switch (i < end ? charAt(source, i) : -1) {
+            case 'F' -> PieceType.FOX;
+            case 'D' -> PieceType.DOG;
+            default -> throw invalid(i);
+        };
+        i = skipSpace(source, i + 1, end);
+        long fox = parseSquare(source, i, end, boardSize);
+        i = skipSpace(source, (int) (fox >>> 32), end);
+        int numberOfDogs = 0;
+        for (int j = i; j < end; j++) {
+            if (!isDigit(charAt(source, j))) {
+                numberOfDogs++;
+            }
+        }
+        Piece[] pieces = new Piece[1 + numberOfDogs];
+        pieces[0] = new Piece(PieceType.FOX, positionOf((int) fox, boardSize));
+        for (int dog = 1; dog < pieces.length; dog++) {
+            long square = parseSquare(source, i, end, boardSize);
+            pieces[dog] = new Piece(PieceType.DOG, positionOf((int) square, boardSize));
+            i = (int) (square >>> 32);
+        }
+        if (numberOfDogs == 0 || i != end) {
+            throw invalid(i);
+        }
+        return new BoardState(boardSize, pieceTypeToMove, pieces);
+    }
+
+    /**
+     * Parses the square starting at the index given.
+     *
+     * @return the index after the square in the upper half, and the square,
+     * {@code row * boardSize + col}, in the lower half
+     */
+    private static long parseSquare(Object source, int i, int end, int boardSize) {
+        int col = i < end ? charAt(source, i) - 'a' : -1;
+        if (col < 0 || col >= boardSize) {
+            throw invalid(i);
+        }
+        int start = ++i;
+        int rank = 0;
+        while (i < end && i - start < 2 && isDigit(charAt(source, i))) {
+            rank = 10 * rank + charAt(source, i++) - '0';
+        }
+        if (rank < 1 || rank > boardSize || charAt(source, start) == '0') {
+            throw invalid(start);
+        }
+        return (long) i << 32 | (rank - 1) * boardSize + col;
+    }
+
+    private static Position positionOf(int square, int boardSize) {
+        return new Position(square / boardSize, square % boardSize);
+    }
+
+    private static int skipSpace(Object source, int i, int end) {
+        if (i >= end || charAt(source, i) != ' ') {
+            throw invalid(i);
+        }
+        return i + 1;
+    }
+
+    private static int charAt(Object source, int i) {
+        return source instanceof byte[] bytes ? bytes[i] & 0xFF : ((CharSequence) source).charAt(i);
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalid(int index) {
+        return new IllegalArgumentException("Invalid position notation at index " + index);
+    }
+}
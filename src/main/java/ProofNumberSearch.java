@@ -0,0 +1,345 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decides whether the dogs can force a win, that is, trap the fox, from a given
+ * state using depth-first proof-number search (df-pn). The states in which the
+ * dogs are to move are OR nodes, the states in which the fox is to move are AND
+ * nodes. As in {@link Search}, a side that has no legal moves loses the game.
+ *
+ * <p>The proof and disproof numbers are kept in a table of fixed size, so the
+ * memory used does not depend on the size of the proof. Each bucket of the table
+ * holds two entries. When both are taken by other states, a solved entry is kept
+ * in favour of an unsolved one, and otherwise the entry that took more work to
+ * compute is kept. The search gives up after a configurable number of nodes.
+ */
+public class ProofNumberSearch {
+
+    /**
+     * The proof or disproof number of a solved node.
+     */
+    static final int INFINITY = 1 << 30;
+
+    private static final long ABSENT = -1;
+
+    /**
+     * Represents what the search could establish about a state.
+     */
+    public enum Outcome {
+        /**
+         * The dogs can force a win.
+         */
+        PROVEN,
+        /**
+         * The fox can avoid being trapped.
+         */
+        DISPROVEN,
+        /**
+         * The search gave up before deciding.
+         */
+        UNKNOWN
+    }
+
+    /**
+     * Represents the outcome of a search.
+     *
+     * @param outcome what the search could establish about the state
+     * @param mainLine the moves of the proof or the disproof, in which the
+     * winning side plays the moves found by the search; empty if the outcome
+     * is unknown
+     * @param nodes the number of nodes expanded
+     */
+    public record Result(Outcome outcome, List<Move> mainLine, long nodes) {
+
+        public Result {
+            mainLine = List.copyOf(mainLine);
+        }
+    }
+
+    private final long[] tableKeys;
+
+    private final int[] tableProofNumbers;
+
+    private final int[] tableDisproofNumbers;
+
+    /**
+     * The number of nodes expanded below the entries, used to decide which entry
+     * of a bucket to replace.
+     */
+    private final long[] tableWork;
+
+    private final long nodeLimit;
+
+    private CompactBoard[] boards;
+
+    private long[][] childKeys;
+
+    private long nodes;
+
+    /**
+     * Creates a {@code ProofNumberSearch} object.
+     *
+     * @param tableSize the number of entries of the table, rounded up to a power
+     * of two; each entry takes 24 bytes
+     * @param nodeLimit the number of nodes after which the search gives up
+     */
+    public ProofNumberSearch(int tableSize, long nodeLimit) {
+        if (tableSize < 1 || tableSize > 1 << 28 || nodeLimit < 1) {
+            throw new IllegalArgumentException();
+        }
+        int capacity = Math.max(2, Integer.highestOneBit(2 * tableSize - 1));
+        this.tableKeys = new long[capacity];
+        this.tableProofNumbers = new int[capacity];
+        this.tableDisproofNumbers = new int[capacity];
+        this.tableWork = new long[capacity];
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Searches the given state. The table is cleared before the search.
+     *
+     * @param state the state to be searched; its positions must fit into
+     * position keys, see {@link CompactBoard#hasPositionKeys()}
+     * @return the outcome of the search
+     */
+    public Result prove(BoardState state) {
+        var root = new CompactBoard(state);
+        if (!root.hasPositionKeys()) {
+            throw new IllegalArgumentException();
+        }
+        Arrays.fill(tableKeys, 0);
+        int maxPly = 2 * (root.getNumberOfPieces() - 1) * (root.getBoardSize() - 1) + 2;
+        boards = new CompactBoard[maxPly + 2];
+        childKeys = new long[maxPly + 1][];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new CompactBoard(state);
+        }
+        for (int i = 0; i < childKeys.length; i++) {
+            childKeys[i] = new long[Math.max(CompactBoard.DIRECTIONS.length, 2 * (root.getNumberOfPieces() - 1))];
+        }
+        nodes = 0;
+        long rootKey = root.positionKey();
+        long numbers = evaluate(rootKey, boards[0]);
+        if (proofNumber(numbers) != 0 && disproofNumber(numbers) != 0) {
+            expand(rootKey, 0, INFINITY, INFINITY);
+            numbers = probe(rootKey);
+        }
+        Outcome outcome = proofNumber(numbers) == 0 ? Outcome.PROVEN
+                : disproofNumber(numbers) == 0 ? Outcome.DISPROVEN
+                : Outcome.UNKNOWN;
+        return new Result(outcome, outcome == Outcome.UNKNOWN ? List.of() : mainLine(root, outcome), nodes);
+    }
+
+    /**
+     * Expands the node of the given key until its proof number reaches the proof
+     * number threshold, its disproof number reaches the disproof number threshold,
+     * or the node limit is reached. The threshold of the child expanded is raised
+     * above the number of the second best child by a quarter (the 1 + epsilon
+     * trick), so that the search does not keep switching between two children.
+     */
+    private void expand(long key, int ply, int proofThreshold, int disproofThreshold) {
+        long nodesBefore = nodes;
+        CompactBoard board = boards[ply];
+        board.setPositionKey(key);
+        boolean orNode = board.getPieceTypeToMove() == PieceType.DOG;
+        long[] children = childKeys[ply];
+        int numberOfChildren = generateChildren(board, key, children);
+        while (true) {
+            int proofNumber = orNode ? INFINITY : 0;
+            int disproofNumber = orNode ? 0 : INFINITY;
+            int best = -1;
+            int bestNumber = INFINITY;
+            int secondBestNumber = INFINITY;
+            int bestOtherNumber = 0;
+            for (int i = 0; i < numberOfChildren; i++) {
+                long numbers = lookup(children[i], boards[ply + 1]);
+                // the number the side to move wants to minimize, and the other one
+                int number = orNode ? proofNumber(numbers) : disproofNumber(numbers);
+                int otherNumber = orNode ? disproofNumber(numbers) : proofNumber(numbers);
+                if (orNode) {
+                    proofNumber = Math.min(proofNumber, number);
+                    disproofNumber = (int) Math.min(INFINITY, (long) disproofNumber + otherNumber);
+                } else {
+                    disproofNumber = Math.min(disproofNumber, number);
+                    proofNumber = (int) Math.min(INFINITY, (long) proofNumber + otherNumber);
+                }
+                if (number < bestNumber) {
+                    secondBestNumber = bestNumber;
+                    bestNumber = number;
+                    bestOtherNumber = otherNumber;
+                    best = i;
+                } else if (number < secondBestNumber) {
+                    secondBestNumber = number;
+                }
+            }
+            if (proofNumber >= proofThreshold || disproofNumber >= disproofThreshold || nodes >= nodeLimit) {
+                store(key, proofNumber, disproofNumber, nodes - nodesBefore);
+                return;
+            }
+            nodes++;
+            int childThreshold = secondBestNumber + secondBestNumber / 4 + 1;
+            if (orNode) {
+                expand(children[best], ply + 1,
+                        Math.min(proofThreshold, childThreshold),
+                        disproofThreshold - disproofNumber + bestOtherNumber);
+            } else {
+                expand(children[best], ply + 1,
+                        proofThreshold - proofNumber + bestOtherNumber,
+                        Math.min(disproofThreshold, childThreshold));
+            }
+            board.setPositionKey(key);
+        }
+    }
+
+    /**
+     * Writes the keys of the states reachable by one legal move into the array
+     * given, and returns their number. The board is restored afterwards.
+     */
+    private static int generateChildren(CompactBoard board, long key, long[] children) {
+        int numberOfChildren = 0;
+        int first = board.getPieceTypeToMove() == PieceType.FOX ? 0 : 1;
+        int last = board.getPieceTypeToMove() == PieceType.FOX ? 0 : board.getNumberOfPieces() - 1;
+        for (int i = first; i <= last; i++) {
+            for (var direction : CompactBoard.DIRECTIONS) {
+                if (board.move(i, direction)) {
+                    children[numberOfChildren++] = board.positionKey();
+                    board.setPositionKey(key);
+                }
+            }
+        }
+        return numberOfChildren;
+    }
+
+    /**
+     * Returns the proof and disproof numbers of the node of the given key, packed
+     * into a {@code long}, taking them from the table if it has an entry for the node.
+     */
+    private long lookup(long key, CompactBoard scratch) {
+        long numbers = probe(key);
+        return numbers != ABSENT ? numbers : evaluate(key, scratch);
+    }
+
+    /**
+     * Returns the proof and disproof numbers of a node that has not been expanded
+     * yet. Terminal nodes are solved, the numbers of the other nodes are initialized
+     * by the number of moves the side to move has.
+     */
+    private static long evaluate(long key, CompactBoard scratch) {
+        scratch.setPositionKey(key);
+        if (scratch.foxWins()) {
+            return pack(INFINITY, 0);
+        }
+        int moves = 0;
+        int first = scratch.getPieceTypeToMove() == PieceType.FOX ? 0 : 1;
+        int last = scratch.getPieceTypeToMove() == PieceType.FOX ? 0 : scratch.getNumberOfPieces() - 1;
+        for (int i = first; i <= last; i++) {
+            for (var direction : CompactBoard.DIRECTIONS) {
+                if (scratch.canMove(i, direction)) {
+                    moves++;
+                }
+            }
+        }
+        if (scratch.getPieceTypeToMove() == PieceType.FOX) {
+            return moves == 0 ? pack(0, INFINITY) : pack(moves, 1);
+        }
+        return moves == 0 ? pack(INFINITY, 0) : pack(1, moves);
+    }
+
+    /**
+     * Returns the moves of the proof or the disproof found, starting from the
+     * root. Nodes of the line whose entries have been replaced in the table are
+     * solved again, as long as the node limit allows it.
+     */
+    private List<Move> mainLine(CompactBoard root, Outcome outcome) {
+        List<Move> line = new ArrayList<>();
+        var board = new CompactBoard(root.toBoardState());
+        var child = new CompactBoard(root.toBoardState());
+        var scratch = boards[0];
+        while (!board.isGoal() && board.hasLegalMoves() && line.size() < childKeys.length) {
+            Move next = null;
+            int first = board.getPieceTypeToMove() == PieceType.FOX ? 0 : 1;
+            int last = board.getPieceTypeToMove() == PieceType.FOX ? 0 : board.getNumberOfPieces() - 1;
+            for (int i = first; i <= last && next == null; i++) {
+                for (var direction : CompactBoard.DIRECTIONS) {
+                    child.set(board);
+                    if (child.move(i, direction)) {
+                        long childKey = child.positionKey();
+                        long numbers = lookup(childKey, scratch);
+                        if (proofNumber(numbers) != 0 && disproofNumber(numbers) != 0 && nodes < nodeLimit) {
+                            expand(childKey, line.size() + 1, INFINITY, INFINITY);
+                            numbers = lookup(childKey, scratch);
+                        }
+                        if ((outcome == Outcome.PROVEN ? proofNumber(numbers) : disproofNumber(numbers)) == 0) {
+                            next = new Move(i, direction);
+                            break;
+                        }
+                    }
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            line.add(next);
+            board.move(next.pieceIndex(), next.direction());
+        }
+        return line;
+    }
+
+    /**
+     * Returns the first slot of the bucket of two slots the given key can be stored in.
+     */
+    private int bucketOf(long key) {
+        return OffHeapLongSet.hash(key) & (tableKeys.length - 2);
+    }
+
+    private long probe(long key) {
+        int bucket = bucketOf(key);
+        for (int slot = bucket; slot < bucket + 2; slot++) {
+            if (tableKeys[slot] == key) {
+                return pack(tableProofNumbers[slot], tableDisproofNumbers[slot]);
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Stores the numbers of the given node. If the node has no entry in its bucket,
+     * an empty slot is taken. If neither slot is empty, the entry of an unsolved
+     * node is evicted before the entry of a solved one, and otherwise the entry
+     * with less recorded work is evicted.
+     */
+    private void store(long key, int proofNumber, int disproofNumber, long work) {
+        int bucket = bucketOf(key);
+        int slot;
+        if (tableKeys[bucket] == key || tableKeys[bucket + 1] == key) {
+            slot = tableKeys[bucket] == key ? bucket : bucket + 1;
+        } else if (tableKeys[bucket] == 0 || tableKeys[bucket + 1] == 0) {
+            slot = tableKeys[bucket] == 0 ? bucket : bucket + 1;
+        } else if (isSolved(bucket) != isSolved(bucket + 1)) {
+            slot = isSolved(bucket) ? bucket + 1 : bucket;
+        } else {
+            slot = tableWork[bucket] <= tableWork[bucket + 1] ? bucket : bucket + 1;
+        }
+        tableKeys[slot] = key;
+        tableProofNumbers[slot] = proofNumber;
+        tableDisproofNumbers[slot] = disproofNumber;
+        tableWork[slot] = work;
+    }
+
+    private boolean isSolved(int slot) {
+        return tableProofNumbers[slot] == 0 || tableDisproofNumbers[slot] == 0;
+    }
+
+    private static long pack(int proofNumber, int disproofNumber) {
+        return (long) proofNumber << 32 | disproofNumber;
+    }
+
+    private static int proofNumber(long numbers) {
+        return (int) (numbers >>> 32);
+    }
+
+    private static int disproofNumber(long numbers) {
+        return (int) numbers;
+    }
+}
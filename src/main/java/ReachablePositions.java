@@ -0,0 +1,123 @@
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Explores the positions reachable from a given state by legal moves. The
+ * positions are identified by their keys, see {@link CompactBoard#positionKey()},
+ * and are collected in off-heap sets. The search does not continue from states
+ * in which the game is over.
+ */
+public class ReachablePositions {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private ReachablePositions() {
+    }
+
+    /**
+     * Collects the positions reachable from the given state, including the state itself.
+     *
+     * @param start the state the exploration starts from
+     * @return the keys of the reachable positions
+     */
+    public static OffHeapLongSet collect(BoardState start) {
+        var board = new CompactBoard(start);
+        var visited = new OffHeapLongSet();
+        long[] frontier = {board.positionKey()};
+        int frontierSize = 1;
+        visited.add(frontier[0]);
+        while (frontierSize > 0) {
+            var next = new LongList();
+            for (int i = 0; i < frontierSize; i++) {
+                expand(board, frontier[i], visited::add, next);
+            }
+            frontier = next.values;
+            frontierSize = next.size;
+        }
+        return visited;
+    }
+
+    /**
+     * Collects the positions reachable from the given state in parallel, level by level.
+     *
+     * @param start the state the exploration starts from
+     * @return the keys of the reachable positions
+     */
+    public static ConcurrentOffHeapLongSet collectInParallel(BoardState start) {
+        var visited = new ConcurrentOffHeapLongSet(1 << 16);
+        long startKey = new CompactBoard(start).positionKey();
+        visited.add(startKey);
+        long[] frontier = {startKey};
+        while (frontier.length > 0) {
+            long[] current = frontier;
+            frontier = IntStream.range(0, (current.length + CHUNK_SIZE - 1) / CHUNK_SIZE)
+                    .parallel()
+                    .mapToObj(chunk -> {
+                        var board = new CompactBoard(start);
+                        var next = new LongList();
+                        for (int i = chunk * CHUNK_SIZE; i < Math.min(current.length, (chunk + 1) * CHUNK_SIZE); i++) {
+                            expand(board, current[i], visited::add, next);
+                        }
+                        return next;
+                    })
+                    .collect(LongList::new, LongList::addAll, LongList::addAll)
+                    .toArray();
+        }
+        return visited;
+    }
+
+    /**
+     * Adds the keys of the positions that can be reached from the given position
+     * by one move, and have not been visited yet, to the list given.
+     */
+    private static void expand(CompactBoard board, long key, LongPredicate markVisited, LongList next) {
+        board.setPositionKey(key);
+        if (board.foxWins()) {
+            return;
+        }
+        int first = board.getPieceTypeToMove() == PieceType.FOX ? 0 : 1;
+        int last = board.getPieceTypeToMove() == PieceType.FOX ? 0 : board.getNumberOfPieces() - 1;
+        for (int i = first; i <= last; i++) {
+            for (var direction : CompactBoard.DIRECTIONS) {
+                if (board.move(i, direction)) {
+                    long child = board.positionKey();
+                    if (markVisited.test(child)) {
+                        next.add(child);
+                    }
+                    board.setPositionKey(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * A growable list of {@code long} values.
+     */
+    private static class LongList {
+
+        long[] values = new long[16];
+
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+
+        LongList addAll(LongList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(2 * values.length, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Alpha-beta search over {@code BoardState} objects. Scores are given from
+ * the point of view of the side to move, and a side that has no legal moves
+ * loses the game.
+ */
+public class Search {
+
+    /**
+     * The score of a position in which the side to move has won.
+     */
+    public static final int WIN_SCORE = 100_000;
+
+    /**
+     * The maximum number of plies the search can look ahead.
+     */
+    public static final int MAX_PLY = 128;
+
+    /**
+     * The number of nodes visited between two checks of the stop condition.
+     */
+    private static final int STOP_CHECK_INTERVAL = 1024;
+
+    /**
+     * The half-width of the first window around the expected score of a move
+     * scored by {@link #scoreMoves}.
+     */
+    private static final int ASPIRATION_WINDOW = 16;
+
+    /**
+     * The version of {@link #evaluate}, which must be changed whenever the
+     * evaluation changes, so that scores stored by an older version are not reused.
+     */
+    public static final int EVALUATION_VERSION = 1;
+
+    private final BooleanSupplier stopRequested;
+
+    private final TranspositionTable transpositionTable;
+
+    private final Move[][] pvTable = new Move[MAX_PLY + 1][MAX_PLY + 1];
+
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    private Move rootMoveToSearchFirst;
+
+    /**
+     * The ply of the nodes whose principal variations are reported, which are
+     * never cut off by the transposition table.
+     */
+    private int reportedPly;
+
+    private long nodeLimit = Long.MAX_VALUE;
+
+    private int rootMargin;
+
+    private final Map<Move, Integer> rootScores = new LinkedHashMap<>();
+
+    private long nodes;
+
+    private boolean aborted;
+
+    /**
+     * Creates a {@code Search} object.
+     *
+     * @param stopRequested a condition that is polled during the search, and
+     * makes the search stop as soon as it becomes true
+     */
+    public Search(BooleanSupplier stopRequested) {
+        this(stopRequested, null);
+    }
+
+    /**
+     * Creates a {@code Search} object that stores its results in the given table,
+     * and reuses the results found there. A table can be shared by several
+     * searches, including ones running at the same time.
+     *
+     * @param stopRequested a condition that is polled during the search, and
+     * makes the search stop as soon as it becomes true
+     * @param transpositionTable the table, or {@code null} for none
+     */
+    public Search(BooleanSupplier stopRequested, TranspositionTable transpositionTable) {
+        this.stopRequested = stopRequested;
+        this.transpositionTable = transpositionTable;
+    }
+
+    /**
+     * {@return the number of nodes visited since this object was created}
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Sets the number of nodes after which the search stops. The limit applies
+     * to the total number of nodes visited since this object was created.
+     *
+     * @param nodeLimit the number of nodes after which the search stops
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Sets how far below the best score the exact scores of the other root moves
+     * are computed, see {@link #getRootScores()}. A wider margin makes the search
+     * slower, since fewer root moves can be cut off.
+     *
+     * @param rootMargin the margin, 0 by default
+     */
+    public void setRootMargin(int rootMargin) {
+        if (rootMargin < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.rootMargin = rootMargin;
+    }
+
+    /**
+     * {@return the scores of the root moves of the last completed search whose
+     * score is within the root margin of the best score, in the order they were
+     * searched}
+     */
+    public Map<Move, Integer> getRootScores() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(rootScores));
+    }
+
+    /**
+     * {@return whether the last search was stopped before it was completed}
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Searches the given state to the depth specified. The best move of the
+     * previous call is searched first.
+     *
+     * @param state the state to be searched
+     * @param depth the number of plies to look ahead
+     * @return the result of the search, or {@code null} if the search was
+     * stopped before it was completed
+     */
+    public SearchResult search(BoardState state, int depth) {
+        if (depth < 1 || depth > MAX_PLY
+                || transpositionTable != null && !transpositionTable.accepts(state)) {
+            throw new IllegalArgumentException();
+        }
+        aborted = false;
+        reportedPly = 0;
+        rootScores.clear();
+        int score = negamax(state, depth, 0, -WIN_SCORE - 1, WIN_SCORE + 1);
+        if (aborted) {
+            rootScores.clear();
+            return null;
+        }
+        rootScores.values().removeIf(rootScore -> rootScore < score - rootMargin);
+        List<Move> principalVariation = Arrays.asList(Arrays.copyOf(pvTable[0], pvLength[0]));
+        rootMoveToSearchFirst = principalVariation.isEmpty() ? null : principalVariation.get(0);
+        return new SearchResult(depth, score, principalVariation, nodes);
+    }
+
+    /**
+     * Computes the exact score of every legal move of the given state by iterative
+     * deepening. Each move is searched in a narrow window around its score of the
+     * previous depth, and the window is widened only if the score falls outside of
+     * it. Since the moves share the transposition table of this search, scoring all
+     * moves costs a small multiple of a single search; without a table it costs
+     * much more.
+     *
+     * @param state the state whose moves are to be scored
+     * @param depth the number of plies to look ahead
+     * @return a result for each legal move, whose principal variation starts with
+     * the move, from the best move to the worst one; an empty list if the game is
+     * over; or {@code null} if the search was stopped before it was completed
+     */
+    public List<SearchResult> scoreMoves(BoardState state, int depth) {
+        if (depth < 1 || depth > MAX_PLY
+                || transpositionTable != null && !transpositionTable.accepts(state)) {
+            throw new IllegalArgumentException();
+        }
+        aborted = false;
+        reportedPly = 1;
+        List<SearchResult> results = new ArrayList<>();
+        if (state.isGoal()) {
+            return results;
+        }
+        for (var move : legalMoves(state)) {
+            results.add(new SearchResult(0, 0, List.of(move), nodes));
+        }
+        for (int currentDepth = 1; currentDepth <= depth; currentDepth++) {
+            for (int i = 0; i < results.size(); i++) {
+                SearchResult previous = results.get(i);
+                Move move = previous.bestMove();
+                BoardState child = state.afterMove(move.pieceIndex(), move.direction());
+                int window = ASPIRATION_WINDOW;
+                int alpha = currentDepth == 1 ? -WIN_SCORE - 1 : Math.max(previous.score() - window, -WIN_SCORE - 1);
+                int beta = currentDepth == 1 ? WIN_SCORE + 1 : Math.min(previous.score() + window, WIN_SCORE + 1);
+                int score;
+                while (true) {
+                    score = -negamax(child, currentDepth - 1, 1, -beta, -alpha);
+                    if (aborted) {
+                        return null;
+                    }
+                    if (score <= alpha && alpha > -WIN_SCORE - 1) {
+                        window *= 4;
+                        alpha = Math.max(score - window, -WIN_SCORE - 1);
+                    } else if (score >= beta && beta < WIN_SCORE + 1) {
+                        window *= 4;
+                        beta = Math.min(score + window, WIN_SCORE + 1);
+                    } else {
+                        break;
+                    }
+                }
+                List<Move> line = new ArrayList<>(pvLength[1] + 1);
+                line.add(move);
+                line.addAll(Arrays.asList(pvTable[1]).subList(0, pvLength[1]));
+                results.set(i, new SearchResult(currentDepth, score, line, nodes));
+            }
+            // the best moves of this depth are searched first at the next one
+            results.sort(Comparator.comparingInt(SearchResult::score).reversed());
+        }
+        return results;
+    }
+
+    private int negamax(BoardState state, int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (++nodes >= nodeLimit
+                || (nodes & (STOP_CHECK_INTERVAL - 1)) == 0 && stopRequested.getAsBoolean()) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        // terminal states are never stored, so a hit also means the state is not terminal
+        long key = 0;
+        Move hashMove = null;
+        if (transpositionTable != null) {
+            key = state.positionKey();
+            long entry = transpositionTable.probe(key);
+            if (entry != TranspositionTable.ABSENT) {
+                int bound = TranspositionTable.boundOf(entry);
+                int score = fromTableScore(TranspositionTable.scoreOf(entry), ply);
+                if (ply > reportedPly && TranspositionTable.depthOf(entry) >= depth
+                        && (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER_BOUND && score >= beta
+                        || bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return Math.max(alpha, Math.min(beta, score));
+                }
+                hashMove = TranspositionTable.moveOf(entry);
+            }
+        }
+        if (state.foxWins()) {
+            return state.getPieceTypeToMove() == PieceType.FOX ? WIN_SCORE - ply : -(WIN_SCORE - ply);
+        }
+        List<Move> moves = legalMoves(state);
+        if (moves.isEmpty()) {
+            return -(WIN_SCORE - ply);
+        }
+        if (depth == 0) {
+            int score = evaluate(state);
+            if (transpositionTable != null) {
+                transpositionTable.store(key, 0, score, TranspositionTable.EXACT, null);
+            }
+            return score;
+        }
+        Move firstMove = ply == 0 && rootMoveToSearchFirst != null ? rootMoveToSearchFirst : hashMove;
+        if (firstMove != null && moves.remove(firstMove)) {
+            moves.add(0, firstMove);
+        }
+        Move bestMove = null;
+        for (var move : moves) {
+            // at the root, moves within the margin of the best one get exact scores too,
+            // including those exactly at the margin, whichever order they are searched in
+            int lowerBound = ply == 0 ? Math.max(alpha - rootMargin - 1, -WIN_SCORE - 1) : alpha;
+            int score = -negamax(state.afterMove(move.pieceIndex(), move.direction()),
+                    depth - 1, ply + 1, -beta, -lowerBound);
+            if (aborted) {
+                return 0;
+            }
+            if (ply == 0 && score > lowerBound) {
+                rootScores.put(move, score);
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                pvTable[ply][0] = move;
+                System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+                pvLength[ply] = pvLength[ply + 1] + 1;
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        if (transpositionTable != null) {
+            int bound = alpha >= beta ? TranspositionTable.LOWER_BOUND
+                    : bestMove == null ? TranspositionTable.UPPER_BOUND : TranspositionTable.EXACT;
+            transpositionTable.store(key, depth, toTableScore(alpha, ply), bound, bestMove);
+        }
+        return alpha;
+    }
+
+    /**
+     * Converts a win score from the distance to the root to the distance to the
+     * current node, so that it stays correct when the node is reached at another ply.
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score > WIN_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        return score < -(WIN_SCORE - MAX_PLY) ? score - ply : score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score > WIN_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        return score < -(WIN_SCORE - MAX_PLY) ? score + ply : score;
+    }
+
+    /**
+     * {@return the legal moves of the side to move in the state given}
+     *
+     * @param state the state whose legal moves are to be returned
+     */
+    public static List<Move> legalMoves(BoardState state) {
+        List<Move> moves = new ArrayList<>();
+        if (state.getPieceTypeToMove() == PieceType.FOX) {
+            for (var direction : state.getPossibleMoves(0)) {
+                moves.add(new Move(0, direction));
+            }
+        } else {
+            for (int i = 1; i < state.getNumberOfPieces(); i++) {
+                for (var direction : state.getPossibleMoves(i)) {
+                    moves.add(new Move(i, direction));
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Returns a heuristic score of a non-terminal state from the point of view
+     * of the side to move. The fox is rewarded for advancing, for the dogs it has
+     * already passed, and for the empty squares around it.
+     *
+     * @param state the state to be evaluated
+     * @return the heuristic score of the state
+     */
+    static int evaluate(BoardState state) {
+        Position fox = state.getPiece(0).getPosition();
+        int score = 4 * fox.row();
+        for (int i = 1; i < state.getNumberOfPieces(); i++) {
+            if (state.getPiece(i).getPosition().row() < fox.row()) {
+                score += 20;
+            }
+        }
+        for (var direction : Direction.values()) {
+            Position target = fox.getPositionAt(direction);
+            if (target.row() >= 0 && target.row() < state.getBoardSize()
+                    && target.col() >= 0 && target.col() < state.getBoardSize()
+                    && state.isSquareEmpty(target)) {
+                score += 8;
+            }
+        }
+        return state.getPieceTypeToMove() == PieceType.FOX ? score : -score;
+    }
+}
@@ -0,0 +1,34 @@
+import java.util.List;
+
+/**
+ * Represents the outcome of a search to a given depth.
+ *
+ * @param depth the depth the search was completed to
+ * @param score the score of the position from the point of view of the side to move
+ * @param principalVariation the best line found, starting with the best move
+ * @param nodes the number of nodes visited so far
+ */
+public record SearchResult(int depth, int score, List<Move> principalVariation, long nodes) {
+
+    /**
+     * Creates a {@code SearchResult} object.
+     */
+    public SearchResult {
+        principalVariation = List.copyOf(principalVariation);
+    }
+
+    /**
+     * {@return the best move found, or {@code null} if the side to move has
+     * no legal moves}
+     */
+    public Move bestMove() {
+        return principalVariation.isEmpty() ? null : principalVariation.get(0);
+    }
+
+    /**
+     * {@return whether the score is a forced win or loss}
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) > Search.WIN_SCORE - Search.MAX_PLY;
+    }
+}
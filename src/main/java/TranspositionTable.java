@@ -0,0 +1,308 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the results of searches by position key, see {@link BoardState#positionKey()},
+ * so that positions reached more than once are not searched again. Leaf evaluations
+ * are stored as exact scores of depth 0, so the table doubles as an evaluation cache.
+ *
+ * <p>The entries live outside the Java heap. A table can be written to a snapshot
+ * file, and a later process can map that file and use it right away: the pages
+ * are read from the file when they are first touched, and changes are not
+ * written back to it. Each entry stores its key XOR-ed with its data, so entries
+ * that were torn by concurrent writers, or damaged in the file, are treated as
+ * missing.
+ */
+public class TranspositionTable {
+
+    /**
+     * The bound of a score that is the exact score of the position.
+     */
+    public static final int EXACT = 0;
+
+    /**
+     * The bound of a score that the score of the position is at least.
+     */
+    public static final int LOWER_BOUND = 1;
+
+    /**
+     * The bound of a score that the score of the position is at most.
+     */
+    public static final int UPPER_BOUND = 2;
+
+    /**
+     * The value returned by {@link #probe} if the table has no entry for the key.
+     */
+    public static final long ABSENT = 0;
+
+    /**
+     * The largest number of entries a table can have.
+     */
+    public static final int MAX_CAPACITY = 1 << 26;
+
+    private static final long MAGIC = 0x464F58545400L; // "FOXTT"
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+
+    private final ByteBuffer entries;
+
+    private final int capacity;
+
+    private final int boardSize;
+
+    private final int numberOfPieces;
+
+    /**
+     * Creates an empty {@code TranspositionTable} object.
+     *
+     * @param boardSize the number of rows and columns of the board of the positions
+     * @param numberOfPieces the number of pieces of the positions
+     * @param capacity the number of entries, rounded up to a power of two
+     */
+    public TranspositionTable(int boardSize, int numberOfPieces, int capacity) {
+        if (capacity < 2 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException();
+        }
+        this.boardSize = boardSize;
+        this.numberOfPieces = numberOfPieces;
+        this.capacity = Integer.highestOneBit(2 * capacity - 1);
+        this.entries = ByteBuffer.allocateDirect(this.capacity * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private TranspositionTable(ByteBuffer entries, int boardSize, int numberOfPieces, int capacity) {
+        this.entries = entries;
+        this.boardSize = boardSize;
+        this.numberOfPieces = numberOfPieces;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Maps the given snapshot file as a table. The file is rejected if it is
+     * missing, if it was written by a different format or evaluation version,
+     * if it holds positions of another board size or number of pieces, or if
+     * its header is damaged.
+     *
+     * @param file the snapshot file
+     * @param boardSize the number of rows and columns of the board of the positions
+     * @param numberOfPieces the number of pieces of the positions
+     * @return the table mapped from the file, or an empty optional if the file
+     * has been rejected
+     * @throws IOException if the file exists but cannot be read
+     */
+    public static Optional<TranspositionTable> map(Path file, int boardSize, int numberOfPieces) throws IOException {
+        // a private mapping needs a writable channel, but changes never reach the file
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_BYTES) {
+                return Optional.empty();
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete
+            }
+            int capacity = header.getInt(28);
+            if (header.getLong(0) != MAGIC
+                    || header.getInt(8) != FORMAT_VERSION
+                    || header.getInt(12) != Search.EVALUATION_VERSION
+                    || header.getInt(16) != boardSize
+                    || header.getInt(20) != numberOfPieces
+                    || header.getLong(32) != headerChecksum(header)
+                    || capacity < 2 || capacity > MAX_CAPACITY || Integer.bitCount(capacity) != 1
+                    || channel.size() != HEADER_BYTES + (long) capacity * ENTRY_BYTES) {
+                return Optional.empty();
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.PRIVATE, HEADER_BYTES,
+                    (long) capacity * ENTRY_BYTES);
+            return Optional.of(new TranspositionTable(mapped.order(ByteOrder.LITTLE_ENDIAN),
+                    boardSize, numberOfPieces, capacity));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the table to the given snapshot file. The snapshot is written to a
+     * temporary file first, which then replaces the given file, so the file is
+     * never left half-written.
+     *
+     * @param file the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public void snapshot(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putLong(0, MAGIC)
+                        .putInt(8, FORMAT_VERSION)
+                        .putInt(12, Search.EVALUATION_VERSION)
+                        .putInt(16, boardSize)
+                        .putInt(20, numberOfPieces)
+                        .putInt(28, capacity);
+                header.putLong(32, headerChecksum(header));
+                channel.write(header);
+                ByteBuffer source = entries.duplicate().clear();
+                while (source.hasRemaining()) {
+                    channel.write(source);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static long headerChecksum(ByteBuffer header) {
+        CRC32 crc = new CRC32();
+        crc.update(header.duplicate().position(0).limit(32));
+        return crc.getValue();
+    }
+
+    /**
+     * {@return whether the table holds positions of the given state's board size
+     * and number of pieces}
+     *
+     * @param state the state to be checked
+     */
+    public boolean accepts(BoardState state) {
+        return state.getBoardSize() == boardSize && state.getNumberOfPieces() == numberOfPieces;
+    }
+
+    /**
+     * {@return the number of entries of the table}
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the data stored for the given key, which can be decoded by
+     * {@link #scoreOf}, {@link #depthOf}, {@link #boundOf} and {@link #moveOf}.
+     *
+     * @param key the position key
+     * @return the data stored for the key, or {@link #ABSENT}
+     */
+    public long probe(long key) {
+        int bucket = bucketOf(key);
+        for (int slot = bucket; slot < bucket + 2; slot++) {
+            long data = entries.getLong(slot * ENTRY_BYTES + Long.BYTES);
+            if (data != ABSENT && (entries.getLong(slot * ENTRY_BYTES) ^ data) == key) {
+                return data;
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Stores the result of a search. The first entry of a bucket keeps the result
+     * of the deepest search, the second one the most recent shallower result.
+     * An entry for the same key is updated in place if the new search is at least
+     * as deep; otherwise the result goes to the second entry. A result that takes
+     * over the first entry moves the entry it replaces to the second one.
+     *
+     * @param key the position key
+     * @param depth the depth of the search, between 0 and 255
+     * @param score the score of the position
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     * @param move the best move found, or {@code null}
+     */
+    public void store(long key, int depth, int score, int bound, Move move) {
+        long data = (long) score << 32
+                | (long) (depth & 0xFF) << 24
+                | (long) bound << 16
+                | 1L << 15
+                | (move == null ? 0 : 1 + (move.pieceIndex() << 2 | move.direction().ordinal()) & 0xFF);
+        int bucket = bucketOf(key);
+        long deepest = dataOf(bucket);
+        if (deepest != ABSENT && keyOf(bucket, deepest) == key) {
+            write(depth >= depthOf(deepest) ? bucket : bucket + 1, key, data);
+        } else if (deepest == ABSENT || depth >= depthOf(deepest)) {
+            // the replaced entry moves to the second slot, over any older result for the key
+            if (deepest != ABSENT) {
+                write(bucket + 1, keyOf(bucket, deepest), deepest);
+            }
+            write(bucket, key, data);
+        } else {
+            write(bucket + 1, key, data);
+        }
+    }
+
+    private long dataOf(int slot) {
+        return entries.getLong(slot * ENTRY_BYTES + Long.BYTES);
+    }
+
+    private long keyOf(int slot, long data) {
+        return entries.getLong(slot * ENTRY_BYTES) ^ data;
+    }
+
+    private void write(int slot, long key, long data) {
+        entries.putLong(slot * ENTRY_BYTES, key ^ data);
+        entries.putLong(slot * ENTRY_BYTES + Long.BYTES, data);
+    }
+
+    /**
+     * Removes all entries from the table.
+     */
+    public void clear() {
+        for (int i = 0; i < capacity * ENTRY_BYTES; i += Long.BYTES) {
+            entries.putLong(i, 0);
+        }
+    }
+
+    private int bucketOf(long key) {
+        return OffHeapLongSet.hash(key) & (capacity - 2);
+    }
+
+    /**
+     * {@return the score stored in the given data}
+     *
+     * @param data data returned by {@link #probe}
+     */
+    public static int scoreOf(long data) {
+        return (int) (data >> 32);
+    }
+
+    /**
+     * {@return the depth stored in the given data}
+     *
+     * @param data data returned by {@link #probe}
+     */
+    public static int depthOf(long data) {
+        return (int) (data >>> 24) & 0xFF;
+    }
+
+    /**
+     * {@return the bound stored in the given data}
+     *
+     * @param data data returned by {@link #probe}
+     */
+    public static int boundOf(long data) {
+        return (int) (data >>> 16) & 0x3;
+    }
+
+    /**
+     * {@return the best move stored in the given data, or {@code null}}
+     *
+     * @param data data returned by {@link #probe}
+     */
+    public static Move moveOf(long data) {
+        int move = (int) data & 0xFF;
+        return move == 0 ? null : new Move((move - 1) >>> 2, CompactBoard.DIRECTIONS[(move - 1) & 3]);
+    }
+}
@@ -0,0 +1,182 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The batch operations of {@code PositionBatch} written with the incubating
+ * Vector API. The positions are processed eight at a time: the bytes of eight
+ * positions are loaded into one byte vector, and widened into as many long
+ * vectors as needed to hold them, so the kernels work with any long vector of
+ * at most eight lanes.
+ *
+ * <p>This class may only be loaded if the {@code jdk.incubator.vector} module
+ * has been added to the boot layer, see {@link PositionBatch}.
+ */
+final class VectorPositionBatchKernels {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+
+    /**
+     * The number of positions processed by one iteration of the kernels.
+     */
+    static final int STEP = BYTES.length();
+
+    private static final int PARTS = STEP / LONGS.length();
+
+    private VectorPositionBatchKernels() {
+    }
+
+    /**
+     * {@return whether the vectors of this platform are wide enough for the
+     * kernels to be faster than the scalar loops}
+     */
+    static boolean isUseful() {
+        return LONGS.length() >= 2 && LONGS.length() <= STEP;
+    }
+
+    /**
+     * Computes the legal moves of the positions from 0 up to the largest multiple
+     * of {@link #STEP} not above {@code size}, see {@link PositionBatch#legalMoves}.
+     *
+     * @return the index of the first position not processed
+     */
+    static int legalMoves(int size, int boardSize, long boardMask, long notFirstColumn, long notLastColumn,
+                          byte[] foxSquares, long[] dogs, byte[] sidesToMove,
+                          byte[] foxMoves, long[] dogsUpLeft, long[] dogsUpRight) {
+        int up = boardSize;
+        int bound = size - size % STEP;
+        for (int i = 0; i < bound; i += STEP) {
+            ByteVector foxSquareBytes = ByteVector.fromArray(BYTES, foxSquares, i);
+            ByteVector sideBytes = ByteVector.fromArray(BYTES, sidesToMove, i);
+            ByteVector moves = ByteVector.zero(BYTES);
+            for (int part = 0; part < PARTS; part++) {
+                int offset = i + part * LONGS.length();
+                LongVector fox = ones().lanewise(VectorOperators.LSHL, widen(foxSquareBytes, part));
+                LongVector dogBitboards = LongVector.fromArray(LONGS, dogs, offset);
+                LongVector empty = dogBitboards.or(fox).not().and(boardMask);
+                // all ones if the fox is to move, all zeros otherwise
+                LongVector foxToMove = widen(sideBytes, part).sub(1);
+                LongVector foxLeft = fox.and(notFirstColumn);
+                LongVector foxRight = fox.and(notLastColumn);
+                LongVector foxMask = bitIf(foxLeft.lanewise(VectorOperators.LSHR, up + 1).and(empty), 1)
+                        .or(bitIf(foxRight.lanewise(VectorOperators.LSHR, up - 1).and(empty), 2))
+                        .or(bitIf(foxLeft.lanewise(VectorOperators.LSHL, up - 1).and(empty), 4))
+                        .or(bitIf(foxRight.lanewise(VectorOperators.LSHL, up + 1).and(empty), 8))
+                        .and(foxToMove);
+                moves = moves.or(narrow(foxMask, part));
+                LongVector dogsToMove = foxToMove.not().and(dogBitboards);
+                dogsToMove.and(notFirstColumn).and(empty.lanewise(VectorOperators.LSHL, up + 1))
+                        .intoArray(dogsUpLeft, offset);
+                dogsToMove.and(notLastColumn).and(empty.lanewise(VectorOperators.LSHL, up - 1))
+                        .intoArray(dogsUpRight, offset);
+            }
+            moves.intoArray(foxMoves, i);
+        }
+        return bound;
+    }
+
+    /**
+     * Makes the moves of the positions from 0 up to the largest multiple of
+     * {@link #STEP} not above {@code size}, see {@link PositionBatch#applyMoves}.
+     *
+     * @return the index of the first position not processed
+     */
+    static int applyMoves(int size, int boardSize, byte[] foxSquares, long[] dogs, byte[] sidesToMove,
+                          byte[] fromSquares, byte[] directions) {
+        int bound = size - size % STEP;
+        for (int i = 0; i < bound; i += STEP) {
+            ByteVector fromBytes = ByteVector.fromArray(BYTES, fromSquares, i);
+            ByteVector directionBytes = ByteVector.fromArray(BYTES, directions, i);
+            ByteVector foxSquareBytes = ByteVector.fromArray(BYTES, foxSquares, i);
+            ByteVector sideBytes = ByteVector.fromArray(BYTES, sidesToMove, i);
+            ByteVector newFoxSquares = ByteVector.zero(BYTES);
+            for (int part = 0; part < PARTS; part++) {
+                int offset = i + part * LONGS.length();
+                LongVector from = widen(fromBytes, part);
+                LongVector direction = widen(directionBytes, part);
+                // the row change is -1 for directions 0 and 1, and +1 for 2 and 3
+                LongVector rowChange = direction.and(2).sub(1);
+                LongVector colChange = direction.and(1).lanewise(VectorOperators.LSHL, 1).sub(1);
+                LongVector to = from.add(rowChange.mul(boardSize)).add(colChange);
+                LongVector foxToMove = widen(sideBytes, part).sub(1);
+                LongVector moved = ones().lanewise(VectorOperators.LSHL, from)
+                        .or(ones().lanewise(VectorOperators.LSHL, to));
+                LongVector.fromArray(LONGS, dogs, offset).lanewise(VectorOperators.XOR, moved.and(foxToMove.not()))
+                        .intoArray(dogs, offset);
+                LongVector fox = widen(foxSquareBytes, part).and(foxToMove.not()).or(to.and(foxToMove));
+                newFoxSquares = newFoxSquares.or(narrow(fox, part));
+            }
+            newFoxSquares.intoArray(foxSquares, i);
+            sideBytes.lanewise(VectorOperators.XOR, (byte) 1).intoArray(sidesToMove, i);
+        }
+        return bound;
+    }
+
+    /**
+     * Computes the terminal statuses of the positions from 0 up to the largest
+     * multiple of {@link #STEP} not above {@code size}, see
+     * {@link PositionBatch#terminalStatuses}.
+     *
+     * @return the index of the first position not processed
+     */
+    static int terminalStatuses(int size, int boardSize, long boardMask,
+                                byte[] foxSquares, long[] dogs, byte[] sidesToMove,
+                                byte[] foxMoves, byte[] statuses) {
+        // square * reciprocal >>> 16 is the row of the square for all squares of a board of at most 8x8
+        long reciprocal = (65536 + boardSize - 1) / boardSize;
+        int bound = size - size % STEP;
+        for (int i = 0; i < bound; i += STEP) {
+            ByteVector foxSquareBytes = ByteVector.fromArray(BYTES, foxSquares, i);
+            ByteVector sideBytes = ByteVector.fromArray(BYTES, sidesToMove, i);
+            ByteVector foxMoveBytes = ByteVector.fromArray(BYTES, foxMoves, i);
+            ByteVector result = ByteVector.zero(BYTES);
+            for (int part = 0; part < PARTS; part++) {
+                int offset = i + part * LONGS.length();
+                LongVector rowStart = widen(foxSquareBytes, part).mul(reciprocal)
+                        .lanewise(VectorOperators.LSHR, 16).mul(boardSize);
+                // the fox wins if no dog is in its row or below
+                LongVector rowAndBelow = LongVector.broadcast(LONGS, -1L)
+                        .lanewise(VectorOperators.LSHL, rowStart).and(boardMask);
+                VectorMask<Long> foxWins = LongVector.fromArray(LONGS, dogs, offset).and(rowAndBelow).eq(0);
+                VectorMask<Long> foxTrapped = widen(sideBytes, part).eq(PositionBatch.FOX_TO_MOVE)
+                        .and(widen(foxMoveBytes, part).eq(0));
+                LongVector status = LongVector.zero(LONGS)
+                        .blend(PositionBatch.DOGS_WIN, foxTrapped)
+                        .blend(PositionBatch.FOX_WINS, foxWins);
+                result = result.or(narrow(status, part));
+            }
+            result.intoArray(statuses, i);
+        }
+        return bound;
+    }
+
+    private static LongVector ones() {
+        return LongVector.broadcast(LONGS, 1L);
+    }
+
+    /**
+     * {@return the given bit in the lanes of the vector that are not 0, and 0 in the others}
+     */
+    private static LongVector bitIf(LongVector vector, long bit) {
+        return LongVector.zero(LONGS).blend(bit, vector.compare(VectorOperators.NE, 0));
+    }
+
+    /**
+     * {@return the given part of the byte lanes, widened to long lanes}
+     */
+    private static LongVector widen(ByteVector bytes, int part) {
+        return (LongVector) bytes.convertShape(VectorOperators.B2L, LONGS, part);
+    }
+
+    /**
+     * {@return the long lanes narrowed to bytes, and placed in the given part of
+     * the byte lanes, with the other byte lanes 0}
+     */
+    private static ByteVector narrow(LongVector longs, int part) {
+        return (ByteVector) longs.convertShape(VectorOperators.L2B, BYTES, -part);
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiPlayerPoolTest {
+
+    AiPlayerPool pool = new AiPlayerPool(4);
+
+    @AfterEach
+    void close() {
+        pool.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Difficulty.class)
+    void chooseMove_returnsLegalMoveWithinTheCeiling(Difficulty difficulty) throws Exception {
+        for (var state : List.of(new BoardState(PieceType.FOX), new BoardState(PieceType.DOG))) {
+            long start = System.nanoTime();
+            Move move = pool.chooseMove(state, difficulty).get(30, TimeUnit.SECONDS);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(state.canMove(move.pieceIndex(), move.direction()));
+            assertTrue(elapsedMillis < difficulty.getLatencyCeilingMillis() + 500);
+        }
+        assertEquals(2, pool.admittedRequests(difficulty));
+        assertTrue(pool.latencyPercentile(difficulty, 50) > 0);
+        assertTrue(pool.latencyPercentile(difficulty, 50) <= pool.latencyPercentile(difficulty, 99));
+    }
+
+    @Test
+    void chooseMove_floodOfOneLevelDoesNotStarveTheOthers() throws Exception {
+        BoardState state = new BoardState(PieceType.DOG);
+        List<CompletableFuture<Move>> casualMoves = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            casualMoves.add(pool.chooseMove(state, Difficulty.CASUAL));
+        }
+        Move expertMove = pool.chooseMove(state, Difficulty.EXPERT).get(30, TimeUnit.SECONDS);
+        assertTrue(state.canMove(expertMove.pieceIndex(), expertMove.direction()));
+        assertEquals(1, pool.admittedRequests(Difficulty.EXPERT));
+        for (var move : casualMoves) {
+            Move casualMove = move.get(30, TimeUnit.SECONDS);
+            assertTrue(state.canMove(casualMove.pieceIndex(), casualMove.direction()));
+        }
+        assertTrue(pool.rejectedRequests(Difficulty.CASUAL) > 0);
+        assertEquals(200, pool.admittedRequests(Difficulty.CASUAL) + pool.rejectedRequests(Difficulty.CASUAL));
+    }
+
+    @Test
+    void chooseMove_shouldThrowIllegalArgumentException() {
+        BoardState trapped = new BoardState(PieceType.FOX,
+                new Piece(PieceType.FOX, new Position(0, 0)),
+                new Piece(PieceType.DOG, new Position(1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> pool.chooseMove(trapped, Difficulty.BEGINNER));
+        BoardState passed = new BoardState(PieceType.DOG,
+                new Piece(PieceType.FOX, new Position(4, 4)),
+                new Piece(PieceType.DOG, new Position(3, 3)),
+                new Piece(PieceType.DOG, new Position(3, 5)));
+        assertThrows(IllegalArgumentException.class, () -> pool.chooseMove(passed, Difficulty.BEGINNER));
+    }
+}
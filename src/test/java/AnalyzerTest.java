@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyzerTest {
+
+    static class CollectingSubscriber implements Flow.Subscriber<SearchResult> {
+
+        final List<SearchResult> results = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Throwable error;
+        volatile boolean completed;
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(SearchResult item) {
+            results.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+
+    @Test
+    void analyze_publishesOneResultPerDepth() throws InterruptedException {
+        BoardState state = new BoardState(PieceType.FOX);
+        var subscriber = new CollectingSubscriber();
+        new Analyzer().analyze(state, 6).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+        assertTrue(subscriber.completed);
+        assertEquals(6, subscriber.results.size());
+        for (int i = 0; i < subscriber.results.size(); i++) {
+            SearchResult result = subscriber.results.get(i);
+            assertEquals(i + 1, result.depth());
+            assertEquals(result.principalVariation().get(0), result.bestMove());
+            assertTrue(state.canMove(result.bestMove().pieceIndex(), result.bestMove().direction()));
+        }
+    }
+
+    @Test
+    void analyze_stopsWhenCancelled() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        var subscriber = new CollectingSubscriber() {
+            @Override
+            public void onNext(SearchResult item) {
+                super.onNext(item);
+                subscription.cancel();
+            }
+        };
+        new Analyzer(executor).analyze(new BoardState(PieceType.DOG), Search.MAX_PLY).subscribe(subscriber);
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(1, subscriber.results.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void analyze_stopsWhenSubscriberThrows() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        var subscriber = new CollectingSubscriber() {
+            @Override
+            public void onNext(SearchResult item) {
+                super.onNext(item);
+                throw new IllegalStateException();
+            }
+        };
+        new Analyzer(executor).analyze(new BoardState(PieceType.DOG), Search.MAX_PLY).subscribe(subscriber);
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(1, subscriber.results.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void analyze_signalsErrorOnNonPositiveRequest() throws InterruptedException {
+        var subscriber = new CollectingSubscriber() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(0);
+            }
+        };
+        new Analyzer().analyze(new BoardState(PieceType.FOX), 4).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        assertTrue(subscriber.results.isEmpty());
+    }
+}
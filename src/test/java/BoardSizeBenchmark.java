@@ -0,0 +1,47 @@
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how the cost of move generation, making moves and checking for the
+ * end of the game grows with the size of the board. Each configuration plays
+ * random games from the initial state and reports the average time per ply.
+ */
+class BoardSizeBenchmark {
+
+    private static final int[][] CONFIGURATIONS = {{8, 4}, {10, 5}, {12, 6}, {16, 8}, {24, 12}};
+
+    private static final int WARMUP_GAMES = 20_000;
+
+    private static final int MEASURED_GAMES = 50_000;
+
+    public static void main(String[] args) {
+        for (var configuration : CONFIGURATIONS) {
+            playRandomGames(configuration[0], configuration[1], WARMUP_GAMES, new Random(1));
+        }
+        System.out.printf("%-6s %-6s %12s %12s%n", "size", "dogs", "plies", "ns/ply");
+        for (var configuration : CONFIGURATIONS) {
+            long start = System.nanoTime();
+            long plies = playRandomGames(configuration[0], configuration[1], MEASURED_GAMES, new Random(2));
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-6d %-6d %12d %12.1f%n", configuration[0], configuration[1],
+                    plies, (double) elapsed / plies);
+        }
+    }
+
+    private static long playRandomGames(int boardSize, int numberOfDogs, int games, Random random) {
+        long plies = 0;
+        for (int game = 0; game < games; game++) {
+            BoardState state = new BoardState(boardSize, numberOfDogs, PieceType.FOX);
+            while (!state.foxWins()) {
+                List<Move> moves = Search.legalMoves(state);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                Move move = moves.get(random.nextInt(moves.size()));
+                state = state.afterMove(move.pieceIndex(), move.direction());
+                plies++;
+            }
+        }
+        return plies;
+    }
+}
@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardStateTest {
+
+    BoardState state;
+
+    @Test
+    void initialState() {
+        state = new BoardState(PieceType.FOX);
+        assertEquals(BoardState.BOARD_SIZE, state.getBoardSize());
+        assertEquals(5, state.getNumberOfPieces());
+        assertEquals(new Piece(PieceType.FOX, new Position(0, 2)), state.getPiece(0));
+        assertEquals(new Piece(PieceType.DOG, new Position(7, 1)), state.getPiece(1));
+        assertEquals(new Piece(PieceType.DOG, new Position(7, 7)), state.getPiece(4));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"8, 4", "10, 5", "12, 6", "9, 5"})
+    void initialState_ofArbitrarySize(int boardSize, int numberOfDogs) {
+        state = new BoardState(boardSize, numberOfDogs, PieceType.DOG);
+        assertEquals(boardSize, state.getBoardSize());
+        assertEquals(numberOfDogs + 1, state.getNumberOfPieces());
+        Position fox = state.getPiece(0).getPosition();
+        assertEquals(0, fox.row());
+        for (int i = 1; i < state.getNumberOfPieces(); i++) {
+            Position dog = state.getPiece(i).getPosition();
+            assertEquals(boardSize - 1, dog.row());
+            assertEquals((fox.row() + fox.col()) % 2, (dog.row() + dog.col()) % 2);
+        }
+        assertFalse(state.isGoal());
+    }
+
+    @Test
+    void constructor_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new BoardState(8, 5, PieceType.FOX));
+        assertThrows(IllegalArgumentException.class, () -> new BoardState(PieceType.FOX,
+                new Piece(PieceType.FOX, new Position(0, 0))));
+        assertThrows(IllegalArgumentException.class, () -> new BoardState(PieceType.FOX,
+                new Piece(PieceType.FOX, new Position(0, 0)),
+                new Piece(PieceType.DOG, new Position(0, 0))));
+        assertThrows(IllegalArgumentException.class, () -> new BoardState(PieceType.FOX,
+                new Piece(PieceType.FOX, new Position(0, 0)),
+                new Piece(PieceType.DOG, new Position(8, 1))));
+        assertThrows(IllegalArgumentException.class, () -> new BoardState(PieceType.FOX,
+                new Piece(PieceType.DOG, new Position(0, 0)),
+                new Piece(PieceType.FOX, new Position(1, 1))));
+    }
+
+    @Test
+    void getPossibleMoves() {
+        state = new BoardState(PieceType.FOX);
+        assertEquals(List.of(Direction.DOWN_LEFT, Direction.DOWN_RIGHT), state.getPossibleMoves(0));
+        assertEquals(List.of(), state.getPossibleMoves(1));
+        state = new BoardState(PieceType.DOG);
+        assertEquals(List.of(), state.getPossibleMoves(0));
+        assertEquals(List.of(Direction.UP_LEFT, Direction.UP_RIGHT), state.getPossibleMoves(1));
+        assertEquals(List.of(Direction.UP_LEFT), state.getPossibleMoves(4));
+    }
+
+    @Test
+    void move_onWideBoard() {
+        state = new BoardState(12, PieceType.FOX,
+                new Piece(PieceType.FOX, new Position(10, 10)),
+                new Piece(PieceType.DOG, new Position(11, 11)),
+                new Piece(PieceType.DOG, new Position(11, 9)));
+        assertFalse(state.isSquareEmpty(new Position(11, 11)));
+        assertEquals(List.of(Direction.UP_LEFT, Direction.UP_RIGHT), state.getPossibleMoves(0));
+        state.move(0, Direction.UP_RIGHT);
+        assertEquals(new Position(9, 11), state.getPiece(0).getPosition());
+        assertTrue(state.isSquareEmpty(new Position(10, 10)));
+        assertFalse(state.isSquareEmpty(new Position(9, 11)));
+    }
+
+    @Test
+    void foxWins() {
+        state = new BoardState(10, PieceType.DOG,
+                new Piece(PieceType.FOX, new Position(6, 2)),
+                new Piece(PieceType.DOG, new Position(5, 1)),
+                new Piece(PieceType.DOG, new Position(5, 3)));
+        assertTrue(state.foxWins());
+        assertTrue(state.isGoal());
+        state = new BoardState(10, PieceType.DOG,
+                new Piece(PieceType.FOX, new Position(6, 2)),
+                new Piece(PieceType.DOG, new Position(5, 1)),
+                new Piece(PieceType.DOG, new Position(6, 4)));
+        assertFalse(state.foxWins());
+    }
+
+    @Test
+    void dogWins() {
+        state = new BoardState(PieceType.FOX,
+                new Piece(PieceType.FOX, new Position(0, 0)),
+                new Piece(PieceType.DOG, new Position(1, 1)));
+        assertTrue(state.dogWins());
+        state = new BoardState(PieceType.DOG,
+                new Piece(PieceType.FOX, new Position(0, 0)),
+                new Piece(PieceType.DOG, new Position(1, 1)));
+        assertFalse(state.dogWins());
+    }
+
+    @Test
+    void testEquals() {
+        state = new BoardState(PieceType.FOX);
+        assertEquals(state, state.clone());
+        assertEquals(state.hashCode(), state.clone().hashCode());
+        assertNotEquals(state, new BoardState(PieceType.DOG));
+        assertNotEquals(state, new BoardState(10, 4, PieceType.FOX));
+    }
+
+    @Test
+    void testToString() {
+        state = new BoardState(PieceType.DOG,
+                new Piece(PieceType.FOX, new Position(0, 2)),
+                new Piece(PieceType.DOG, new Position(7, 1)));
+        assertEquals("{DOG, [FOX: (0,2)], [DOG: (7,1)]}", state.toString());
+    }
+
+    @Test
+    void testClone() {
+        state = new BoardState(12, 6, PieceType.DOG);
+        BoardState copy = state.clone();
+        copy.move(1, Direction.UP_RIGHT);
+        assertFalse(state.isSquareEmpty(new Position(11, 1)));
+        assertTrue(copy.isSquareEmpty(new Position(11, 1)));
+    }
+}
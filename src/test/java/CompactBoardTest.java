@@ -0,0 +1,88 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactBoardTest {
+
+    @ParameterizedTest
+    @CsvSource({"8, 4", "10, 5", "12, 6"})
+    void followsTheRulesOfBoardState(int boardSize, int numberOfDogs) {
+        Random random = new Random(boardSize);
+        for (int game = 0; game < 200; game++) {
+            BoardState state = new BoardState(boardSize, numberOfDogs, PieceType.FOX);
+            CompactBoard board = new CompactBoard(state);
+            while (true) {
+                assertEquals(state, board.toBoardState());
+                assertEquals(state.foxWins(), board.foxWins());
+                assertEquals(state.dogWins(), board.dogWins());
+                assertEquals(state.isGoal(), board.isGoal());
+                for (int i = 0; i < state.getNumberOfPieces(); i++) {
+                    for (var direction : Direction.values()) {
+                        assertEquals(state.canMove(i, direction), board.canMove(i, direction));
+                    }
+                }
+                List<Move> moves = Search.legalMoves(state);
+                assertEquals(!moves.isEmpty(), board.hasLegalMoves());
+                if (moves.isEmpty() || state.foxWins()) {
+                    break;
+                }
+                Move move = moves.get(random.nextInt(moves.size()));
+                state = state.afterMove(move.pieceIndex(), move.direction());
+                assertTrue(board.move(move.pieceIndex(), move.direction()));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"8, 4", "10, 5", "12, 6"})
+    void positionKey(int boardSize, int numberOfDogs) {
+        Random random = new Random(boardSize);
+        Set<Long> keys = new HashSet<>();
+        BoardState state = new BoardState(boardSize, numberOfDogs, PieceType.FOX);
+        CompactBoard board = new CompactBoard(state);
+        CompactBoard decoded = new CompactBoard(state);
+        for (int ply = 0; ply < 40 && !board.isGoal(); ply++) {
+            long key = board.positionKey();
+            assertTrue(key > 0);
+            assertTrue(keys.add(key));
+            assertEquals(key, board.toBoardState().positionKey());
+            decoded.setPositionKey(key);
+            assertEquals(key, decoded.positionKey());
+            assertEquals(board.getPieceTypeToMove(), decoded.getPieceTypeToMove());
+            assertEquals(board.getRow(0), decoded.getRow(0));
+            assertEquals(board.getCol(0), decoded.getCol(0));
+            List<Move> moves = Search.legalMoves(board.toBoardState());
+            Move move = moves.get(random.nextInt(moves.size()));
+            board.move(move.pieceIndex(), move.direction());
+        }
+    }
+
+    @Test
+    void positionKey_ignoresTheOrderOfTheDogs() {
+        CompactBoard board = new CompactBoard(new BoardState(PieceType.DOG));
+        CompactBoard reordered = new CompactBoard(new BoardState(PieceType.DOG,
+                new Piece(PieceType.FOX, new Position(0, 2)),
+                new Piece(PieceType.DOG, new Position(7, 7)),
+                new Piece(PieceType.DOG, new Position(7, 3)),
+                new Piece(PieceType.DOG, new Position(7, 1)),
+                new Piece(PieceType.DOG, new Position(7, 5))));
+        assertEquals(board.positionKey(), reordered.positionKey());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"8, 4", "12, 6"})
+    void move_shouldNotChangeTheBoardWhenIllegal(int boardSize, int numberOfDogs) {
+        BoardState state = new BoardState(boardSize, numberOfDogs, PieceType.DOG);
+        CompactBoard board = new CompactBoard(state);
+        assertFalse(board.move(0, Direction.DOWN_RIGHT));
+        assertFalse(board.move(1, Direction.DOWN_RIGHT));
+        assertEquals(state, board.toBoardState());
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLogVerifierTest {
+
+    GameLogVerifier verifier = new GameLogVerifier();
+
+    GameLogVerifier.Report verify(String log) throws IOException {
+        return verifier.verify(new ByteArrayInputStream(log.getBytes(StandardCharsets.US_ASCII)), "log");
+    }
+
+    @Test
+    void verify_legalGames() throws IOException {
+        var report = verify("F 0DR 1UR 0DL\r\n# comment\n\nD 4UL 0DL\n  F\n");
+        assertEquals(3, report.games());
+        assertEquals(5, report.plies());
+        assertEquals(List.of(), report.illegalGames());
+    }
+
+    @Test
+    void verify_reportsTheFirstIllegalPly() throws IOException {
+        var report = verify("F 0DR 0DR\nD 1UL 0DR 1DL\nF 0DR 5UL\nF 0XX\nX 0DR\nF 0DR1UL");
+        assertEquals(6, report.games());
+        assertEquals(List.of(
+                new GameLogVerifier.IllegalGame("log", 1, 2),
+                new GameLogVerifier.IllegalGame("log", 2, 3),
+                new GameLogVerifier.IllegalGame("log", 3, 2),
+                new GameLogVerifier.IllegalGame("log", 4, 1),
+                new GameLogVerifier.IllegalGame("log", 5, GameLogVerifier.MALFORMED_HEADER),
+                new GameLogVerifier.IllegalGame("log", 6, 1)), report.illegalGames());
+        assertEquals(1 + 2 + 1, report.plies());
+    }
+
+    @Test
+    void verify_reportsMovesAfterTheEndOfTheGame() throws IOException {
+        var verifier = new GameLogVerifier(4, 1);
+        // the only dog moves past the fox with the fourth move, which ends the game
+        var report = verifier.verify(new ByteArrayInputStream(
+                "F 0DR 1UL 0DR 1UR 0DL".getBytes(StandardCharsets.US_ASCII)), "log");
+        assertEquals(List.of(new GameLogVerifier.IllegalGame("log", 1, 5)), report.illegalGames());
+    }
+
+    @Test
+    void verify_files(@TempDir Path directory) throws IOException {
+        Path first = Files.writeString(directory.resolve("first.log"), "F 0DR 1UR\nD 1UR 0UL\n");
+        Path second = Files.writeString(directory.resolve("second.log"), "D 4UL 0DL 4UL\n");
+        var report = verifier.verify(List.of(first, second));
+        assertEquals(3, report.games());
+        assertEquals(6, report.plies());
+        assertEquals(List.of(new GameLogVerifier.IllegalGame(first.toString(), 2, 2)), report.illegalGames());
+    }
+}
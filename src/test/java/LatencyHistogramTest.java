@@ -0,0 +1,34 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 7, 8, 9, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE})
+    void bucketOf(long value) {
+        int bucket = LatencyHistogram.bucketOf(value);
+        assertTrue(value <= LatencyHistogram.upperBoundOf(bucket));
+        if (bucket > 0) {
+            assertTrue(value > LatencyHistogram.upperBoundOf(bucket - 1));
+        }
+        assertTrue(LatencyHistogram.upperBoundOf(bucket) - value <= value / 8);
+    }
+
+    @Test
+    void percentile() {
+        var histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(1, histogram.percentile(0));
+        assertTrue(histogram.percentile(50) >= 500 && histogram.percentile(50) <= 500 + 500 / 8);
+        assertTrue(histogram.percentile(99) >= 990 && histogram.percentile(99) <= 990 + 990 / 8);
+        assertTrue(histogram.percentile(100) >= 1000);
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLongSetTest {
+
+    @Test
+    void add_and_contains() {
+        var set = new OffHeapLongSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextInt(50_000) + 1;
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long value = 0; value <= 50_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertTrue(set.offHeapBytes() >= 2L * Long.BYTES * set.size());
+    }
+
+    @Test
+    void add_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapLongSet().add(0));
+    }
+
+    @Test
+    void clear() {
+        var set = new OffHeapLongSet(100);
+        set.add(42);
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(42));
+    }
+
+    @Test
+    void map_put_and_get() {
+        var map = new OffHeapLongLongMap();
+        for (long key = 1; key <= 10_000; key++) {
+            assertTrue(map.put(key * 31, key));
+        }
+        assertFalse(map.put(31, -1));
+        assertEquals(10_000, map.size());
+        assertEquals(-1, map.get(31, 0));
+        assertEquals(5_000, map.get(5_000 * 31, 0));
+        assertEquals(7, map.get(30, 7));
+        assertTrue(map.containsKey(62));
+        assertFalse(map.containsKey(0));
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+    }
+
+    @Test
+    void concurrent_add() {
+        var set = new ConcurrentOffHeapLongSet(0, 8);
+        Set<Long> added = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 200_000).parallel().forEach(i -> {
+            long value = i % 100_000 + 1;
+            if (set.add(value)) {
+                assertTrue(added.add(value));
+            }
+        });
+        assertEquals(100_000, set.size());
+        assertEquals(100_000, added.size());
+        assertTrue(set.contains(100_000));
+        assertFalse(set.contains(100_001));
+    }
+}
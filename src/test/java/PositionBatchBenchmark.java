@@ -0,0 +1,67 @@
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the throughput of computing the legal moves and the terminal status
+ * of many positions with {@code PositionBatch}, with and without the Vector API,
+ * to calling {@code getPossibleMoves} and {@code isGoal} on each {@code BoardState}
+ * object. Run it with {@code --add-modules jdk.incubator.vector} to measure the
+ * Vector API.
+ */
+class PositionBatchBenchmark {
+
+    private static final int BATCH_SIZE = 4096;
+
+    private static final int ROUNDS = 2000;
+
+    public static void main(String[] args) {
+        List<BoardState> states = PositionBatchTest.randomStates(8, 4, BATCH_SIZE, new Random(1));
+        var batch = new PositionBatch(8, 4, BATCH_SIZE);
+        states.forEach(batch::add);
+        var scalarBatch = new PositionBatch(8, 4, BATCH_SIZE);
+        states.forEach(scalarBatch::add);
+        scalarBatch.setVectorized(false);
+        byte[] foxMoves = new byte[BATCH_SIZE];
+        long[] dogsUpLeft = new long[BATCH_SIZE];
+        long[] dogsUpRight = new long[BATCH_SIZE];
+        byte[] statuses = new byte[BATCH_SIZE];
+
+        long checksum = 0;
+        for (int pass = 0; pass < 6; pass++) {
+            long start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                batch.legalMoves(foxMoves, dogsUpLeft, dogsUpRight);
+                batch.terminalStatuses(foxMoves, statuses);
+                checksum += statuses[round % BATCH_SIZE] + foxMoves[round % BATCH_SIZE];
+            }
+            long batchElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                scalarBatch.legalMoves(foxMoves, dogsUpLeft, dogsUpRight);
+                scalarBatch.terminalStatuses(foxMoves, statuses);
+                checksum += statuses[round % BATCH_SIZE] + foxMoves[round % BATCH_SIZE];
+            }
+            long scalarElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int round = 0; round < ROUNDS / 20; round++) {
+                for (var state : states) {
+                    for (int i = 0; i < state.getNumberOfPieces(); i++) {
+                        checksum += state.getPossibleMoves(i).size();
+                    }
+                    checksum += state.isGoal() ? 1 : 0;
+                }
+            }
+            long singleElapsed = (System.nanoTime() - start) * 20;
+
+            System.out.printf("batch (vectorized: %b): %.2f ns/position, scalar batch: %.2f ns/position,"
+                            + " BoardState: %.2f ns/position%n",
+                    batch.isVectorized(),
+                    (double) batchElapsed / ROUNDS / BATCH_SIZE,
+                    (double) scalarElapsed / ROUNDS / BATCH_SIZE,
+                    (double) singleElapsed / ROUNDS / BATCH_SIZE);
+        }
+        System.out.println("checksum " + checksum);
+    }
+}
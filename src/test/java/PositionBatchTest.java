@@ -0,0 +1,101 @@
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionBatchTest {
+
+    static List<BoardState> randomStates(int boardSize, int numberOfDogs, int count, Random random) {
+        List<BoardState> states = new ArrayList<>();
+        while (states.size() < count) {
+            BoardState state = new BoardState(boardSize, numberOfDogs,
+                    random.nextBoolean() ? PieceType.FOX : PieceType.DOG);
+            while (states.size() < count) {
+                states.add(state);
+                List<Move> moves = Search.legalMoves(state);
+                if (moves.isEmpty() || state.foxWins()) {
+                    break;
+                }
+                Move move = moves.get(random.nextInt(moves.size()));
+                state = state.afterMove(move.pieceIndex(), move.direction());
+            }
+        }
+        return states;
+    }
+
+    static int squareOf(BoardState state, int index, int boardSize) {
+        Position position = state.getPiece(index).getPosition();
+        return position.row() * boardSize + position.col();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"8, 4, true", "8, 4, false", "7, 3, true", "6, 3, true", "6, 3, false", "5, 2, true", "3, 1, true"})
+    void legalMoves_and_terminalStatuses(int boardSize, int numberOfDogs, boolean vectorized) {
+        // not a multiple of the vector length, so that the scalar tail is tested too
+        List<BoardState> states = randomStates(boardSize, numberOfDogs, 2003, new Random(boardSize));
+        var batch = new PositionBatch(boardSize, numberOfDogs, states.size());
+        batch.setVectorized(vectorized);
+        assertEquals(vectorized && PositionBatch.VECTOR_API_AVAILABLE, batch.isVectorized());
+        states.forEach(batch::add);
+        byte[] foxMoves = new byte[batch.size()];
+        long[] dogsUpLeft = new long[batch.size()];
+        long[] dogsUpRight = new long[batch.size()];
+        byte[] statuses = new byte[batch.size()];
+        batch.legalMoves(foxMoves, dogsUpLeft, dogsUpRight);
+        batch.terminalStatuses(foxMoves, statuses);
+
+        for (int i = 0; i < states.size(); i++) {
+            BoardState state = states.get(i);
+            for (var direction : Direction.values()) {
+                assertEquals(state.getPossibleMoves(0).contains(direction),
+                        (foxMoves[i] >> direction.ordinal() & 1) != 0);
+            }
+            for (int dog = 1; dog < state.getNumberOfPieces(); dog++) {
+                long bit = 1L << squareOf(state, dog, boardSize);
+                List<Direction> possibleMoves = state.getPossibleMoves(dog);
+                assertEquals(possibleMoves.contains(Direction.UP_LEFT), (dogsUpLeft[i] & bit) != 0);
+                assertEquals(possibleMoves.contains(Direction.UP_RIGHT), (dogsUpRight[i] & bit) != 0);
+            }
+            byte expectedStatus = state.foxWins() ? PositionBatch.FOX_WINS
+                    : state.dogWins() ? PositionBatch.DOGS_WIN
+                    : PositionBatch.ONGOING;
+            assertEquals(expectedStatus, statuses[i]);
+            assertEquals(state.isGoal(), statuses[i] != PositionBatch.ONGOING);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"8, 4, true", "8, 4, false", "7, 3, true", "6, 3, true", "6, 3, false"})
+    void applyMoves(int boardSize, int numberOfDogs, boolean vectorized) {
+        Random random = new Random(boardSize);
+        List<BoardState> states = new ArrayList<>();
+        List<Move> moves = new ArrayList<>();
+        for (var state : randomStates(boardSize, numberOfDogs, 2003, random)) {
+            List<Move> legalMoves = Search.legalMoves(state);
+            if (!legalMoves.isEmpty()) {
+                states.add(state);
+                moves.add(legalMoves.get(random.nextInt(legalMoves.size())));
+            }
+        }
+        var batch = new PositionBatch(boardSize, numberOfDogs, states.size());
+        batch.setVectorized(vectorized);
+        byte[] fromSquares = new byte[states.size()];
+        byte[] directions = new byte[states.size()];
+        for (int i = 0; i < states.size(); i++) {
+            batch.add(states.get(i));
+            fromSquares[i] = (byte) squareOf(states.get(i), moves.get(i).pieceIndex(), boardSize);
+            directions[i] = (byte) moves.get(i).direction().ordinal();
+        }
+        batch.applyMoves(fromSquares, directions);
+
+        for (int i = 0; i < states.size(); i++) {
+            BoardState expected = states.get(i).afterMove(moves.get(i).pieceIndex(), moves.get(i).direction());
+            assertEquals(new CompactBoard(expected).positionKey(),
+                    new CompactBoard(batch.toBoardState(i)).positionKey());
+        }
+    }
+}
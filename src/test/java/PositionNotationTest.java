@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionNotationTest {
+
+    @Test
+    void format_initialState() {
+        assertEquals("8 F c1 b8d8f8h8", PositionNotation.format(new BoardState(PieceType.FOX), new StringBuilder()).toString());
+        assertEquals("12 D e1 b12d12f12h12j12l12",
+                PositionNotation.format(new BoardState(12, 6, PieceType.DOG), new StringBuilder()).toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"8, 4", "10, 5", "12, 6", "26, 13"})
+    void format_and_parse(int boardSize, int numberOfDogs) {
+        Random random = new Random(boardSize);
+        BoardState state = new BoardState(boardSize, numberOfDogs, PieceType.FOX);
+        StringBuilder builder = new StringBuilder();
+        byte[] buffer = new byte[3 + PositionNotation.maxLength(state.getNumberOfPieces())];
+        for (int ply = 0; ply < 60 && !state.isGoal(); ply++) {
+            builder.setLength(0);
+            PositionNotation.format(state, builder);
+            assertEquals(state, PositionNotation.parse(builder));
+            int end = PositionNotation.format(state, buffer, 3);
+            assertEquals(builder.toString(), new String(buffer, 3, end - 3, StandardCharsets.US_ASCII));
+            assertTrue(end - 3 <= PositionNotation.maxLength(state.getNumberOfPieces()));
+            assertEquals(state, PositionNotation.parse(buffer, 3, end - 3));
+            List<Move> moves = Search.legalMoves(state);
+            Move move = moves.get(random.nextInt(moves.size()));
+            state = state.afterMove(move.pieceIndex(), move.direction());
+        }
+    }
+
+    @Test
+    void parse_range() {
+        String line = "position=8 D a3 b4h8 # comment";
+        assertEquals(new BoardState(PieceType.DOG,
+                        new Piece(PieceType.FOX, new Position(2, 0)),
+                        new Piece(PieceType.DOG, new Position(3, 1)),
+                        new Piece(PieceType.DOG, new Position(7, 7))),
+                PositionNotation.parse(line, 9, 20));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "8", "8 F", "8 F c1", "8 F c1 ", "8 X c1 b8", "8  F c1 b8", "1 F a1 b1",
+            "27 F a1 b2", "08 F c1 b8", "8 F c1 b8 ", "8 F c1 b9", "8 F c1 i8", "8 F c1 b0", "8 F c1 b08",
+            "8 F c1 c1", "8 F c1 b8,d8", "10 F a1 b101", "8 f c1 b8"})
+    void parse_shouldThrowIllegalArgumentException(String text) {
+        assertThrows(IllegalArgumentException.class, () -> PositionNotation.parse(text));
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        assertThrows(IllegalArgumentException.class, () -> PositionNotation.parse(bytes, 0, bytes.length));
+    }
+
+    @Test
+    void format_doesNotAllocate() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        BoardState state = new BoardState(12, 6, PieceType.DOG);
+        StringBuilder builder = new StringBuilder(64);
+        byte[] buffer = new byte[64];
+        long before = 0;
+        for (int round = 0; round < 2; round++) {
+            before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 100_000; i++) {
+                builder.setLength(0);
+                PositionNotation.format(state, builder);
+                PositionNotation.format(state, buffer, 0);
+            }
+        }
+        assertTrue(threads.getCurrentThreadAllocatedBytes() - before < 100_000);
+    }
+
+    @Test
+    void format_shouldThrowOnSmallBuffer() {
+        BoardState state = new BoardState(PieceType.FOX);
+        assertThrows(IndexOutOfBoundsException.class, () -> PositionNotation.format(state, new byte[8], 0));
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Compares the number of nodes and the time df-pn needs to solve the 6x6 states
+ * of {@code ProofNumberSearchTest} to those of iterative deepening alpha-beta,
+ * with and without a transposition table, which deepens the search until it
+ * finds a win for either side.
+ */
+class ProofNumberSearchBenchmark {
+
+    private static final long ALPHA_BETA_NODE_LIMIT = 200_000_000L;
+
+    public static void main(String[] args) {
+        for (var pieceTypeToMove : PieceType.values()) {
+            BoardState state = new BoardState(6, 3, pieceTypeToMove);
+            System.out.println("6x6, 3 dogs, " + pieceTypeToMove + " to move");
+
+            long start = System.nanoTime();
+            var proof = new ProofNumberSearch(1 << 20, Long.MAX_VALUE).prove(state);
+            report("df-pn", proof.outcome().toString(), proof.nodes(), System.nanoTime() - start);
+
+            for (boolean withTable : new boolean[] {false, true}) {
+                var search = new Search(() -> false, withTable ? new TranspositionTable(6, 4, 1 << 20) : null);
+                search.setNodeLimit(ALPHA_BETA_NODE_LIMIT);
+                start = System.nanoTime();
+                String outcome = "UNKNOWN";
+                for (int depth = 1; depth <= Search.MAX_PLY; depth++) {
+                    SearchResult result = search.search(state, depth);
+                    if (result == null) {
+                        break;
+                    }
+                    if (result.isMateScore()) {
+                        boolean dogsWin = result.score() > 0 == (pieceTypeToMove == PieceType.DOG);
+                        outcome = (dogsWin ? "PROVEN" : "DISPROVEN") + " at depth " + depth;
+                        break;
+                    }
+                }
+                report(withTable ? "alpha-beta + table" : "alpha-beta", outcome, search.getNodes(),
+                        System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static void report(String name, String outcome, long nodes, long elapsedNanos) {
+        System.out.printf("  %-20s %-24s %,15d nodes %,10.1f ms%n", name, outcome, nodes, elapsedNanos / 1e6);
+    }
+}
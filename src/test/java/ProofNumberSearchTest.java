@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProofNumberSearchTest {
+
+    ProofNumberSearch search = new ProofNumberSearch(1 << 16, 1_000_000);
+
+    CompactBoard playMainLine(BoardState state, List<Move> mainLine) {
+        CompactBoard board = new CompactBoard(state);
+        for (var move : mainLine) {
+            assertTrue(board.move(move.pieceIndex(), move.direction()));
+        }
+        return board;
+    }
+
+    @Test
+    void prove_foxIsTrapped() {
+        var result = search.prove(new BoardState(PieceType.FOX,
+                new Piece(PieceType.FOX, new Position(0, 0)),
+                new Piece(PieceType.DOG, new Position(1, 1))));
+        assertEquals(ProofNumberSearch.Outcome.PROVEN, result.outcome());
+        assertEquals(List.of(), result.mainLine());
+        assertEquals(0, result.nodes());
+    }
+
+    @Test
+    void prove_foxCanBeTrappedInOneMove() {
+        var result = search.prove(new BoardState(PieceType.DOG,
+                new Piece(PieceType.FOX, new Position(0, 0)),
+                new Piece(PieceType.DOG, new Position(2, 2)),
+                new Piece(PieceType.DOG, new Position(2, 4))));
+        assertEquals(ProofNumberSearch.Outcome.PROVEN, result.outcome());
+        assertEquals(List.of(new Move(1, Direction.UP_LEFT)), result.mainLine());
+    }
+
+    @Test
+    void prove_foxHasPassedTheDogs() {
+        var result = search.prove(new BoardState(PieceType.DOG,
+                new Piece(PieceType.FOX, new Position(4, 4)),
+                new Piece(PieceType.DOG, new Position(3, 3)),
+                new Piece(PieceType.DOG, new Position(3, 5))));
+        assertEquals(ProofNumberSearch.Outcome.DISPROVEN, result.outcome());
+        assertEquals(List.of(), result.mainLine());
+    }
+
+    @Test
+    void prove_dogsWinOnSmallBoard() {
+        BoardState state = new BoardState(6, 3, PieceType.DOG);
+        var result = search.prove(state);
+        assertEquals(ProofNumberSearch.Outcome.PROVEN, result.outcome());
+        CompactBoard end = playMainLine(state, result.mainLine());
+        assertTrue(end.dogWins());
+    }
+
+    @Test
+    void prove_foxEscapesOnSmallBoard() {
+        BoardState state = new BoardState(6, 3, PieceType.FOX);
+        var result = search.prove(state);
+        assertEquals(ProofNumberSearch.Outcome.DISPROVEN, result.outcome());
+        CompactBoard end = playMainLine(state, result.mainLine());
+        assertTrue(end.foxWins() || !end.hasLegalMoves());
+        assertFalse(end.dogWins());
+    }
+
+    @Test
+    void prove_givesUpAtTheNodeLimit() {
+        var result = new ProofNumberSearch(1 << 10, 100).prove(new BoardState(PieceType.FOX));
+        assertEquals(ProofNumberSearch.Outcome.UNKNOWN, result.outcome());
+        assertEquals(List.of(), result.mainLine());
+        assertTrue(result.nodes() <= 100);
+    }
+}
@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachablePositionsTest {
+
+    /**
+     * Returns a representation of the state that does not depend on the order of the dogs.
+     */
+    static List<Object> canonical(BoardState state) {
+        Set<Position> dogs = new HashSet<>();
+        for (int i = 1; i < state.getNumberOfPieces(); i++) {
+            dogs.add(state.getPiece(i).getPosition());
+        }
+        return List.of(state.getPieceTypeToMove(), state.getPiece(0).getPosition(), dogs);
+    }
+
+    static int countWithBoardStates(BoardState start) {
+        Set<List<Object>> visited = new HashSet<>();
+        var queue = new ArrayDeque<BoardState>();
+        visited.add(canonical(start));
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            BoardState state = queue.remove();
+            if (state.foxWins()) {
+                continue;
+            }
+            for (var move : Search.legalMoves(state)) {
+                BoardState child = state.afterMove(move.pieceIndex(), move.direction());
+                if (visited.add(canonical(child))) {
+                    queue.add(child);
+                }
+            }
+        }
+        return visited.size();
+    }
+
+    @Test
+    void collect() {
+        BoardState start = new BoardState(6, 3, PieceType.FOX);
+        var reachable = ReachablePositions.collect(start);
+        assertEquals(countWithBoardStates(start), reachable.size());
+        assertTrue(reachable.contains(new CompactBoard(start).positionKey()));
+    }
+
+    @Test
+    void collectInParallel() {
+        BoardState start = new BoardState(PieceType.FOX);
+        var sequential = ReachablePositions.collect(start);
+        var parallel = ReachablePositions.collectInParallel(start);
+        assertEquals(sequential.size(), parallel.size());
+        assertTrue(parallel.offHeapBytes() < 100L << 20);
+    }
+}
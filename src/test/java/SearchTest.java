@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+
+    @ParameterizedTest
+    @EnumSource(PieceType.class)
+    void scoreMoves(PieceType pieceTypeToMove) {
+        BoardState state = new BoardState(pieceTypeToMove);
+        var search = new Search(() -> false, new TranspositionTable(8, 5, 1 << 16));
+        List<SearchResult> results = search.scoreMoves(state, 6);
+        assertEquals(new HashSet<>(Search.legalMoves(state)),
+                Set.copyOf(results.stream().map(SearchResult::bestMove).toList()));
+        assertEquals(new Search(() -> false).search(state, 6).score(), results.get(0).score());
+        for (int i = 0; i < results.size(); i++) {
+            SearchResult result = results.get(i);
+            assertEquals(6, result.depth());
+            if (i > 0) {
+                assertTrue(result.score() <= results.get(i - 1).score());
+            }
+            Move move = result.bestMove();
+            SearchResult reply = new Search(() -> false).search(state.afterMove(move.pieceIndex(), move.direction()), 5);
+            assertEquals(-reply.score(), result.score());
+            BoardState line = state.clone();
+            for (var lineMove : result.principalVariation()) {
+                assertTrue(line.canMove(lineMove.pieceIndex(), lineMove.direction()));
+                line = line.afterMove(lineMove.pieceIndex(), lineMove.direction());
+            }
+        }
+    }
+
+    @Test
+    void getRootScores_keepsTheSearchOrder() {
+        BoardState state = new BoardState(PieceType.DOG);
+        var search = new Search(() -> false);
+        search.setRootMargin(2 * Search.WIN_SCORE);
+        Move previousBest = search.search(state, 3).bestMove();
+        search.search(state, 4);
+        List<Move> expected = new ArrayList<>(Search.legalMoves(state));
+        expected.remove(previousBest);
+        expected.add(0, previousBest);
+        assertEquals(expected, new ArrayList<>(search.getRootScores().keySet()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(PieceType.class)
+    void getRootScores_holdsExactlyTheMovesWithinTheMargin(PieceType pieceTypeToMove) {
+        BoardState state = new BoardState(pieceTypeToMove);
+        for (int depth = 1; depth <= 5; depth++) {
+            List<SearchResult> scored = new Search(() -> false).scoreMoves(state, depth);
+            int best = scored.get(0).score();
+            for (int margin : new int[] {0, 4, 8, 20}) {
+                var search = new Search(() -> false);
+                search.setRootMargin(margin);
+                search.search(state, depth);
+                Map<Move, Integer> expected = new HashMap<>();
+                for (var result : scored) {
+                    if (result.score() >= best - margin) {
+                        expected.put(result.bestMove(), result.score());
+                    }
+                }
+                assertEquals(expected, search.getRootScores());
+            }
+        }
+    }
+
+    @Test
+    void scoreMoves_findsTheWinningMove() {
+        // the fox passes the last dog in two moves, the first one down to the left
+        BoardState state = new BoardState(PieceType.FOX,
+                new Piece(PieceType.FOX, new Position(5, 4)),
+                new Piece(PieceType.DOG, new Position(6, 5)),
+                new Piece(PieceType.DOG, new Position(1, 1)));
+        List<SearchResult> results = new Search(() -> false).scoreMoves(state, 3);
+        assertEquals(new Move(0, Direction.DOWN_LEFT), results.get(0).bestMove());
+        assertEquals(Search.WIN_SCORE - 3, results.get(0).score());
+        assertTrue(results.get(0).isMateScore());
+        assertTrue(results.get(results.size() - 1).score() < results.get(0).score());
+    }
+
+    @Test
+    void scoreMoves_whenGameIsOver() {
+        BoardState state = new BoardState(PieceType.FOX,
+                new Piece(PieceType.FOX, new Position(0, 0)),
+                new Piece(PieceType.DOG, new Position(1, 1)));
+        assertEquals(List.of(), new Search(() -> false).scoreMoves(state, 4));
+    }
+
+    @Test
+    void scoreMoves_returnsNullWhenStopped() {
+        var search = new Search(() -> false);
+        search.setNodeLimit(10);
+        assertNull(search.scoreMoves(new BoardState(PieceType.DOG), 8));
+        assertTrue(search.isAborted());
+    }
+
+    @Test
+    void scoreMoves_shouldThrowIllegalArgumentException() {
+        var search = new Search(() -> false);
+        assertThrows(IllegalArgumentException.class, () -> search.scoreMoves(new BoardState(PieceType.FOX), 0));
+    }
+}
@@ -0,0 +1,200 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void store_and_probe() {
+        var table = new TranspositionTable(8, 5, 1000);
+        assertEquals(1024, table.capacity());
+        long key = new BoardState(PieceType.FOX).positionKey();
+        assertEquals(TranspositionTable.ABSENT, table.probe(key));
+        Move move = new Move(3, Direction.UP_RIGHT);
+        table.store(key, 7, -(Search.WIN_SCORE - 3), TranspositionTable.LOWER_BOUND, move);
+        long data = table.probe(key);
+        assertEquals(-(Search.WIN_SCORE - 3), TranspositionTable.scoreOf(data));
+        assertEquals(7, TranspositionTable.depthOf(data));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.boundOf(data));
+        assertEquals(move, TranspositionTable.moveOf(data));
+        table.store(key, 7, 0, TranspositionTable.EXACT, null);
+        data = table.probe(key);
+        assertNotEquals(TranspositionTable.ABSENT, data);
+        assertEquals(0, TranspositionTable.scoreOf(data));
+        assertNull(TranspositionTable.moveOf(data));
+        table.clear();
+        assertEquals(TranspositionTable.ABSENT, table.probe(key));
+    }
+
+    @Test
+    void store_keepsTheDeepestResult() {
+        // a single bucket, so all keys share it
+        var table = new TranspositionTable(8, 5, 2);
+        long a = 1;
+        long b = 2;
+        long c = 3;
+        table.store(a, 5, 50, TranspositionTable.EXACT, null);
+        table.store(b, 3, 30, TranspositionTable.EXACT, null);
+        assertEquals(5, TranspositionTable.depthOf(table.probe(a)));
+        assertEquals(3, TranspositionTable.depthOf(table.probe(b)));
+
+        // a deeper result for the key of the second entry moves the first entry to the second slot
+        table.store(b, 7, 70, TranspositionTable.EXACT, null);
+        assertEquals(7, TranspositionTable.depthOf(table.probe(b)));
+        assertEquals(5, TranspositionTable.depthOf(table.probe(a)));
+
+        // a shallower result does not replace a deeper one of the same key
+        table.store(b, 0, 1, TranspositionTable.EXACT, null);
+        assertEquals(70, TranspositionTable.scoreOf(table.probe(b)));
+        assertEquals(TranspositionTable.ABSENT, table.probe(a));
+
+        table.store(c, 2, 20, TranspositionTable.EXACT, null);
+        assertEquals(20, TranspositionTable.scoreOf(table.probe(c)));
+        assertEquals(70, TranspositionTable.scoreOf(table.probe(b)));
+    }
+
+    @Test
+    void search_findsTheSameScoresWithFewerNodes() {
+        BoardState state = new BoardState(PieceType.DOG);
+        for (int depth = 1; depth <= 7; depth++) {
+            var plain = new Search(() -> false);
+            var cached = new Search(() -> false, new TranspositionTable(8, 5, 1 << 16));
+            SearchResult expected = plain.search(state, depth);
+            SearchResult actual = cached.search(state, depth);
+            assertEquals(expected.score(), actual.score());
+            assertTrue(actual.nodes() <= expected.nodes());
+        }
+    }
+
+    @Test
+    void search_shouldThrowIllegalArgumentException() {
+        var search = new Search(() -> false, new TranspositionTable(8, 5, 1 << 10));
+        assertThrows(IllegalArgumentException.class, () -> search.search(new BoardState(10, 5, PieceType.FOX), 3));
+    }
+
+    @Test
+    void snapshot_and_map() throws IOException {
+        Path file = directory.resolve("analysis.tt");
+        var table = new TranspositionTable(8, 5, 1 << 16);
+        BoardState state = new BoardState(PieceType.FOX);
+        SearchResult cold = new Search(() -> false, table).search(state, 8);
+        table.snapshot(file);
+        assertEquals(64 + 16L * table.capacity(), Files.size(file));
+
+        var mapped = TranspositionTable.map(file, 8, 5).orElseThrow();
+        assertEquals(table.capacity(), mapped.capacity());
+        SearchResult warm = new Search(() -> false, mapped).search(state, 8);
+        assertEquals(cold.score(), warm.score());
+        assertTrue(warm.nodes() < cold.nodes() / 10);
+
+        // the mapped table is private to this process
+        mapped.clear();
+        assertTrue(TranspositionTable.map(file, 8, 5).orElseThrow().probe(state.positionKey())
+                != TranspositionTable.ABSENT);
+    }
+
+    @Test
+    void map_rejectsStaleAndDamagedFiles() throws IOException {
+        Path file = directory.resolve("analysis.tt");
+        assertTrue(TranspositionTable.map(file, 8, 5).isEmpty());
+        new TranspositionTable(8, 5, 1 << 10).snapshot(file);
+        assertTrue(TranspositionTable.map(file, 8, 5).isPresent());
+        assertTrue(TranspositionTable.map(file, 10, 5).isEmpty());
+        assertTrue(TranspositionTable.map(file, 8, 6).isEmpty());
+
+        rewriteHeader(file, 12, Search.EVALUATION_VERSION + 1, true);
+        assertTrue(TranspositionTable.map(file, 8, 5).isEmpty());
+
+        // an unused header field, so only the checksum can tell
+        rewriteHeader(file, 12, Search.EVALUATION_VERSION, true);
+        assertTrue(TranspositionTable.map(file, 8, 5).isPresent());
+        rewriteHeader(file, 24, 1, false);
+        assertTrue(TranspositionTable.map(file, 8, 5).isEmpty());
+
+        new TranspositionTable(8, 5, 1 << 10).snapshot(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 1);
+        }
+        assertTrue(TranspositionTable.map(file, 8, 5).isEmpty());
+
+        Files.write(file, new byte[10]);
+        assertTrue(TranspositionTable.map(file, 8, 5).isEmpty());
+    }
+
+    /**
+     * Overwrites an {@code int} of the header of a snapshot, and updates the
+     * checksum of the header if requested.
+     */
+    private static void rewriteHeader(Path file, int offset, int value, boolean updateChecksum) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.putInt(offset, value);
+            if (updateChecksum) {
+                CRC32 crc = new CRC32();
+                crc.update(header.array(), 0, 32);
+                header.putLong(32, crc.getValue());
+            }
+            channel.write(header.clear(), 0);
+        }
+    }
+
+    @Test
+    void probe_ignoresDamagedEntries() throws IOException {
+        Path file = directory.resolve("analysis.tt");
+        var table = new TranspositionTable(8, 5, 2);
+        long key = new BoardState(PieceType.DOG).positionKey();
+        table.store(key, 5, 42, TranspositionTable.EXACT, null);
+        table.snapshot(file);
+        byte[] bytes = Files.readAllBytes(file);
+        for (int i = 64 + Long.BYTES; i < bytes.length; i += 2 * Long.BYTES) {
+            bytes[i] ^= 0x10; // the data of each entry
+        }
+        Files.write(file, bytes);
+        assertEquals(TranspositionTable.ABSENT, TranspositionTable.map(file, 8, 5).orElseThrow().probe(key));
+    }
+
+    @Test
+    void analysisCache_survivesRestarts() throws IOException {
+        Path file = directory.resolve("analysis.tt");
+        long key = new BoardState(PieceType.FOX).positionKey();
+        try (var cache = AnalysisCache.open(file, 8, 5, 1 << 10, Duration.ofHours(1))) {
+            assertFalse(cache.isWarm());
+            cache.table().store(key, 3, 17, TranspositionTable.EXACT, null);
+        }
+        try (var cache = AnalysisCache.open(file, 8, 5, 1 << 10, Duration.ofHours(1))) {
+            assertTrue(cache.isWarm());
+            assertEquals(17, TranspositionTable.scoreOf(cache.table().probe(key)));
+        }
+        try (var cache = AnalysisCache.open(file, 10, 5, 1 << 10, Duration.ofHours(1))) {
+            assertFalse(cache.isWarm());
+        }
+    }
+
+    @Test
+    void analysisCache_writesSnapshotsPeriodically() throws Exception {
+        Path file = directory.resolve("analysis.tt");
+        try (var cache = AnalysisCache.open(file, 8, 5, 1 << 10, Duration.ofMillis(10))) {
+            assertFalse(cache.isWarm());
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (!Files.exists(file) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(Files.exists(file));
+        }
+    }
+}